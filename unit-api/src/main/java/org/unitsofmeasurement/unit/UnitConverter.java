@@ -9,6 +9,8 @@ package org.unitsofmeasurement.unit;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
 import java.util.List;
 
 
@@ -19,7 +21,7 @@ import java.util.List;
  *
  * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
  * @author <a href="mailto:units@catmedia.us">Werner Keil</a>
- * @version 1.1
+ * @version 1.2
  *
  * @since 0.6.0
  */
@@ -77,6 +79,23 @@ public interface UnitConverter {
      */
     Number convert(Number value);
 
+    /**
+     * Converts a {@code long} value exactly. Conversions by an integral ratio (for example
+     * byte to bit, or kilometre to metre) are performed in integer arithmetic, without the
+     * loss of precision of {@code double} values above 2<sup>53</sup>. Other conversions
+     * may use any arithmetic, but shall never return an approximated result.
+     *
+     * <p>This method is not named {@code convert} because such overload would be selected
+     * instead of {@link #convert(double)} by existing code passing {@code int} values.</p>
+     *
+     * @param  value the numeric value to convert.
+     * @return the {@code long} value after conversion.
+     * @throws ArithmeticException if the result overflows a {@code long}, or is not an integer.
+     *
+     * @since 0.6.3
+     */
+    long convertExact(long value) throws ArithmeticException;
+
     /**
      * Converts a {@code BigDecimal} number according to the specified math context.
      *
@@ -89,6 +108,86 @@ public interface UnitConverter {
      */
     BigDecimal convert(BigDecimal value, MathContext ctx) throws ArithmeticException;
 
+    /**
+     * Converts {@code length} {@code double} values from the {@code src} array, starting at
+     * index {@code srcOff}, and stores the results in the {@code dst} array starting at index
+     * {@code dstOff}. The result is the same than invoking {@link #convert(double)} on each
+     * value, but implementations are encouraged to perform the conversion in a tight loop
+     * (for example a single multiplication by a constant factor for linear converters).
+     *
+     * <p>The source and destination arrays may be the same array, in which case the values
+     * are converted in place. Overlapping ranges are handled as if the source values were
+     * first copied to a temporary array, like {@link System#arraycopy System.arraycopy}.</p>
+     *
+     * @param  src the array of values to convert.
+     * @param  srcOff index of the first value to convert in the source array.
+     * @param  dst the array where to store the converted values (may be {@code src}).
+     * @param  dstOff index where to store the first converted value in the destination array.
+     * @param  length number of values to convert.
+     * @throws IndexOutOfBoundsException if the source or destination range is out of bounds.
+     *
+     * @since 0.6.3
+     */
+    void convert(double[] src, int srcOff, double[] dst, int dstOff, int length);
+
+    /**
+     * Converts {@code length} {@code float} values from the {@code src} array, starting at
+     * index {@code srcOff}, and stores the results in the {@code dst} array starting at index
+     * {@code dstOff}. Each value is converted as if by {@code (float) convert((double) value)}.
+     * The source and destination arrays may be the same array, with the same semantic than
+     * {@link #convert(double[], int, double[], int, int)}.
+     *
+     * @param  src the array of values to convert.
+     * @param  srcOff index of the first value to convert in the source array.
+     * @param  dst the array where to store the converted values (may be {@code src}).
+     * @param  dstOff index where to store the first converted value in the destination array.
+     * @param  length number of values to convert.
+     * @throws IndexOutOfBoundsException if the source or destination range is out of bounds.
+     *
+     * @since 0.6.3
+     */
+    void convert(float[] src, int srcOff, float[] dst, int dstOff, int length);
+
+    /**
+     * Converts the {@linkplain DoubleBuffer#remaining() remaining} values of the {@code src}
+     * buffer and stores the results in the {@code dst} buffer. The values are read from the
+     * current position of the source buffer and written at the current position of the
+     * destination buffer, then the positions of both buffers are advanced by the number of
+     * values converted, like {@link DoubleBuffer#put(DoubleBuffer)}. The buffers may be direct
+     * (for example memory-mapped files or network frames), so callers do not need to copy
+     * the values in a Java array before conversion.
+     *
+     * <p>For converting values in place, the destination can be a {@linkplain DoubleBuffer#duplicate()
+     * duplicate} of the source buffer. Other overlaps of the buffer contents give unspecified results.</p>
+     *
+     * @param  src the buffer of values to convert.
+     * @param  dst the buffer where to store the converted values.
+     * @throws IllegalArgumentException if {@code src} and {@code dst} are the same buffer instance.
+     * @throws java.nio.BufferOverflowException if there is less space remaining in {@code dst}
+     *         than values remaining in {@code src}.
+     * @throws java.nio.ReadOnlyBufferException if {@code dst} is read-only.
+     *
+     * @since 0.6.3
+     */
+    void convert(DoubleBuffer src, DoubleBuffer dst);
+
+    /**
+     * Converts the {@linkplain FloatBuffer#remaining() remaining} values of the {@code src}
+     * buffer and stores the results in the {@code dst} buffer, with the same semantic than
+     * {@link #convert(DoubleBuffer, DoubleBuffer)}. Each value is converted as if by
+     * {@code (float) convert((double) value)}.
+     *
+     * @param  src the buffer of values to convert.
+     * @param  dst the buffer where to store the converted values.
+     * @throws IllegalArgumentException if {@code src} and {@code dst} are the same buffer instance.
+     * @throws java.nio.BufferOverflowException if there is less space remaining in {@code dst}
+     *         than values remaining in {@code src}.
+     * @throws java.nio.ReadOnlyBufferException if {@code dst} is read-only.
+     *
+     * @since 0.6.3
+     */
+    void convert(FloatBuffer src, FloatBuffer dst);
+
     /**
      * Concatenates this converter with another converter. The resulting
      * converter is equivalent to first converting by the specified converter
@@ -0,0 +1,104 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * A converter adding a constant offset to numeric values, as used by
+ * {@link org.unitsofmeasurement.unit.Unit#shift(double)}.
+ *
+ * @version 1.0
+ */
+public class AddConverter extends TestConverter {
+    private final double offset;
+
+    public AddConverter(double offset) {
+        this.offset = offset;
+    }
+
+    @Override
+    boolean isAffine() {
+        return true;
+    }
+
+    @Override
+    double getScale() {
+        return 1;
+    }
+
+    @Override
+    double getOffset() {
+        return offset;
+    }
+
+    @Override
+    public boolean isIdentity() {
+        return offset == 0.0;
+    }
+
+    @Override
+    public boolean isLinear() {
+        return isIdentity();
+    }
+
+    @Override
+    public UnitConverter inverse() {
+        return new AddConverter(-offset);
+    }
+
+    @Override
+    public double convert(double value) {
+        return value + offset;
+    }
+
+    @Override
+    public BigDecimal convert(BigDecimal value, MathContext ctx) throws ArithmeticException {
+        return value.add(BigDecimal.valueOf(offset), ctx);
+    }
+
+    /**
+     * Adds in integer arithmetic if the offset is an integer.
+     */
+    @Override
+    public long convertExact(long value) throws ArithmeticException {
+        final long n = (long) offset;
+        if (n != offset || Math.abs(offset) >= 9.223372036854775807E18) {
+            throw new ArithmeticException("Offset is not an integer: " + offset); //$NON-NLS-1$
+        }
+        final long r = value + n;
+        if (((value ^ r) & (n ^ r)) < 0) {
+            throw new ArithmeticException("Overflow: " + value + " + " + n); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return r;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof AddConverter))
+            return false;
+        return Double.doubleToLongBits(offset) == Double.doubleToLongBits(((AddConverter) obj).offset);
+    }
+
+    @Override
+    public int hashCode() {
+        final long bits = Double.doubleToLongBits(offset);
+        return (int) (bits ^ (bits >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "AddConverter(" + offset + ')';
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * A converter computing {@code scale*x + offset}. Instances created by
+ * {@link TestConverter#concatenate(UnitConverter)} are the fusion of a chain of affine
+ * stages (multiplications, divisions and shifts): {@code double} values are converted
+ * with a single multiply-add by the {@link LinearKernel}, while the original stages are
+ * still returned by {@link #getCompoundConverters()} and used for {@code BigDecimal}
+ * conversions, which must not lose precision to the fused factor.
+ *
+ * @version 1.0
+ */
+public class AffineConverter extends TestConverter {
+    private final double scale;
+    private final double offset;
+
+    /**
+     * The stages fused in this converter, or {@code null} if this converter is fundamental.
+     */
+    private final List<UnitConverter> stages;
+
+    public AffineConverter(double scale, double offset) {
+        this(scale, offset, null);
+    }
+
+    private AffineConverter(double scale, double offset, List<UnitConverter> stages) {
+        this.scale = scale;
+        this.offset = offset;
+        this.stages = stages;
+    }
+
+    /**
+     * Fuses the given affine converters, {@code right} being applied first.
+     */
+    AffineConverter(TestConverter left, TestConverter right) {
+        scale = left.getScale() * right.getScale();
+        offset = left.getScale() * right.getOffset() + left.getOffset();
+        final List<UnitConverter> list = new ArrayList<UnitConverter>();
+        addStages(left, list);
+        addStages(right, list);
+        stages = Collections.unmodifiableList(list);
+    }
+
+    private static void addStages(UnitConverter converter, List<UnitConverter> list) {
+        final List<? extends UnitConverter> s = converter.getCompoundConverters();
+        if (s != null) {
+            list.addAll(s);
+        } else {
+            list.add(converter);
+        }
+    }
+
+    @Override
+    boolean isAffine() {
+        return true;
+    }
+
+    @Override
+    double getScale() {
+        return scale;
+    }
+
+    @Override
+    double getOffset() {
+        return offset;
+    }
+
+    @Override
+    public boolean isIdentity() {
+        return scale == 1.0 && offset == 0.0;
+    }
+
+    @Override
+    public boolean isLinear() {
+        return offset == 0.0;
+    }
+
+    @Override
+    public UnitConverter inverse() {
+        List<UnitConverter> inverseStages = null;
+        if (stages != null) {
+            inverseStages = new ArrayList<UnitConverter>(stages.size());
+            for (int i = stages.size(); --i >= 0;) {
+                inverseStages.add(stages.get(i).inverse());
+            }
+            inverseStages = Collections.unmodifiableList(inverseStages);
+        }
+        return new AffineConverter(1.0 / scale, -offset / scale, inverseStages);
+    }
+
+    @Override
+    public double convert(double value) {
+        return value * scale + offset;
+    }
+
+    @Override
+    public BigDecimal convert(BigDecimal value, MathContext ctx) throws ArithmeticException {
+        if (stages != null) {
+            for (int i = stages.size(); --i >= 0;) {
+                value = stages.get(i).convert(value, ctx);
+            }
+            return value;
+        }
+        return value.multiply(BigDecimal.valueOf(scale), ctx).add(BigDecimal.valueOf(offset), ctx);
+    }
+
+    /**
+     * Converts exactly through the original stages, or through the decimal values of the
+     * coefficients of a fundamental affine converter. Only the final result needs to be an
+     * integer.
+     */
+    @Override
+    public long convertExact(long value) throws ArithmeticException {
+        return convertExact(this, value);
+    }
+
+    @Override
+    public void convert(double[] src, int srcOff, double[] dst, int dstOff, int length) {
+        checkRange(src.length, srcOff, dst.length, dstOff, length);
+        LinearKernel.getInstance().apply(src, srcOff, dst, dstOff, length, scale, offset);
+    }
+
+    @Override
+    public void convert(float[] src, int srcOff, float[] dst, int dstOff, int length) {
+        checkRange(src.length, srcOff, dst.length, dstOff, length);
+        LinearKernel.getInstance().apply(src, srcOff, dst, dstOff, length, scale, offset);
+    }
+
+    @Override
+    public List<? extends UnitConverter> getCompoundConverters() {
+        return stages;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof AffineConverter))
+            return false;
+        AffineConverter that = (AffineConverter) obj;
+        return Double.doubleToLongBits(scale) == Double.doubleToLongBits(that.scale)
+                && Double.doubleToLongBits(offset) == Double.doubleToLongBits(that.offset);
+    }
+
+    @Override
+    public int hashCode() {
+        final long bits = Double.doubleToLongBits(scale) + 31 * Double.doubleToLongBits(offset);
+        return (int) (bits ^ (bits >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "AffineConverter(" + scale + ", " + offset + ')';
+    }
+}
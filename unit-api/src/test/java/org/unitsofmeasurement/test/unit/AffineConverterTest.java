@@ -0,0 +1,61 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.List;
+
+import org.junit.Test;
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+public class AffineConverterTest {
+    private final UnitConverter kmToM = new MultiplyConverter(1000);
+    private final UnitConverter mToMile = new MultiplyConverter(1 / 1609.344);
+    private final UnitConverter mileToFt = new MultiplyConverter(5280);
+
+    @Test
+    public void testFuseLinearChain() {
+        UnitConverter c = mileToFt.concatenate(mToMile).concatenate(kmToM);
+        assertTrue(c instanceof AffineConverter);
+        assertTrue(c.isLinear());
+        assertEquals(3280.839895, c.convert(1.0), 1e-6);
+        List<? extends UnitConverter> stages = c.getCompoundConverters();
+        assertEquals(3, stages.size());
+        assertEquals(mileToFt, stages.get(0));
+        assertEquals(kmToM, stages.get(2));
+    }
+
+    @Test
+    public void testFuseShift() {
+        // Kelvin to Fahrenheit: first shift to Celsius, then scale and shift.
+        UnitConverter c = new AddConverter(32).concatenate(new MultiplyConverter(1.8))
+                .concatenate(new AddConverter(-273.15));
+        assertTrue(c instanceof AffineConverter);
+        assertFalse(c.isLinear());
+        assertEquals(212, c.convert(373.15), 1e-9);
+        assertEquals(373.15, c.inverse().convert(212), 1e-9);
+        assertEquals(3, c.inverse().getCompoundConverters().size());
+    }
+
+    @Test
+    public void testBigDecimalUsesStages() {
+        UnitConverter c = new MultiplyConverter(3).concatenate(new MultiplyConverter(0.5));
+        assertEquals(0, new BigDecimal("1.5").compareTo(c.convert(BigDecimal.ONE, MathContext.DECIMAL64)));
+    }
+
+    @Test
+    public void testIdentity() {
+        assertTrue(kmToM.inverse().concatenate(kmToM).isIdentity());
+    }
+}
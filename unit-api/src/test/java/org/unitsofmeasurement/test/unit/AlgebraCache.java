@@ -0,0 +1,110 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import org.unitsofmeasurement.test.util.BoundedCache;
+import org.unitsofmeasurement.unit.Unit;
+
+
+/**
+ * A bounded cache of unit algebra results keyed by (operation, operand, operand). The
+ * second operand is either a unit, for {@link #MULTIPLY} and {@link #DIVIDE}, or an
+ * integer, for {@link #POW} and {@link #ROOT}. For example:
+ *
+ * [code]
+ *     Unit<?> result = cache.get(AlgebraCache.DIVIDE, length, time, 0);
+ *     if (result == null) {
+ *         result = cache.put(AlgebraCache.DIVIDE, length, time, 0, compute(length, time));
+ *     }
+ * [/code]
+ *
+ * @version 1.0
+ */
+public class AlgebraCache extends BoundedCache<AlgebraCache.Key, Unit<?>> {
+    /**
+     * Operation codes.
+     */
+    public static final int MULTIPLY = 0, DIVIDE = 1, POW = 2, ROOT = 3;
+
+    /**
+     * Creates a cache holding at most the given number of results.
+     *
+     * @param capacity the maximal number of results.
+     */
+    public AlgebraCache(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Returns the cached result of the given operation, or {@code null} if none.
+     *
+     * @param operation one of {@link #MULTIPLY}, {@link #DIVIDE}, {@link #POW} or {@link #ROOT}.
+     * @param left the first operand.
+     * @param right the second operand, or {@code null} for {@code POW} and {@code ROOT}.
+     * @param n the exponent or root order, or 0 for {@code MULTIPLY} and {@code DIVIDE}.
+     * @return the cached result, or {@code null} if none.
+     */
+    public Unit<?> get(int operation, Unit<?> left, Unit<?> right, int n) {
+        return get(new Key(operation, left, right, n));
+    }
+
+    /**
+     * Caches the result of the given operation, unless another result has been cached
+     * concurrently for the same operands.
+     *
+     * @param operation one of {@link #MULTIPLY}, {@link #DIVIDE}, {@link #POW} or {@link #ROOT}.
+     * @param left the first operand.
+     * @param right the second operand, or {@code null} for {@code POW} and {@code ROOT}.
+     * @param n the exponent or root order, or 0 for {@code MULTIPLY} and {@code DIVIDE}.
+     * @param result the result of the operation.
+     * @return the result now cached for the given operands.
+     */
+    public Unit<?> put(int operation, Unit<?> left, Unit<?> right, int n, Unit<?> result) {
+        return put(new Key(operation, left, right, n), result);
+    }
+
+    /**
+     * The (operation, left, right, n) tuple used as cache key.
+     */
+    static final class Key {
+        private final int operation;
+        private final Unit<?> left;
+        private final Unit<?> right;
+        private final int n;
+        private final int hash;
+
+        Key(int operation, Unit<?> left, Unit<?> right, int n) {
+            this.operation = operation;
+            this.left = left;
+            this.right = right;
+            this.n = n;
+            int h = left.hashCode() * 31 + operation;
+            if (right != null) {
+                h = h * 31 + right.hashCode();
+            }
+            hash = h * 31 + n;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            final Key that = (Key) obj;
+            return hash == that.hash && operation == that.operation && n == that.n
+                    && (left == that.left || left.equals(that.left))
+                    && (right == that.right || (right != null && right.equals(that.right)));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -8,6 +8,7 @@
 package org.unitsofmeasurement.test.unit;
 
 import org.unitsofmeasurement.quantity.Area;
+import org.unitsofmeasurement.unit.Dimension;
 import org.unitsofmeasurement.unit.Unit;
 
 
@@ -16,6 +17,8 @@ import org.unitsofmeasurement.unit.Unit;
  */
 public class AreaUnit extends TestUnit<Area> {
 
+    private static final Dimension DIMENSION = PackedDimension.LENGTH.pow(2);
+
     public static final AreaUnit sqmetre = new AreaUnit("sqmetre", 1.0); // reference Unit
     public static final AreaUnit REF_UNIT = sqmetre; // reference Unit
     public static final AreaUnit sqmile = new AreaUnit("sqmile", 1609.0 * 1609.0);
@@ -31,4 +34,9 @@ public class AreaUnit extends TestUnit<Area> {
     public Unit<Area> getSystemUnit() {
         return REF_UNIT;
     }
+
+    @Override
+    public Dimension getDimension() {
+        return DIMENSION;
+    }
 }
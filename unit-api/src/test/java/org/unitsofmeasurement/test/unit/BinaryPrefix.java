@@ -0,0 +1,71 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import org.unitsofmeasurement.quantity.Quantity;
+import org.unitsofmeasurement.unit.Unit;
+
+
+/**
+ * The IEC binary prefixes, from kibi (2^10) to yobi (2^80), typically applied to
+ * {@linkplain org.unitsofmeasurement.quantity.Information information} and
+ * {@linkplain org.unitsofmeasurement.quantity.InformationRate information rate} units.
+ * Each prefix holds a shared {@link PowerOfTwoConverter}, so byte counts convert with
+ * integer shifts and no floating-point error.
+ *
+ * [code]
+ *     Unit<Information> KiB = BinaryPrefix.KIBI.prefix(BitUnit.bit.multiply(8));
+ * [/code]
+ *
+ * @version 1.0
+ */
+public enum BinaryPrefix {
+    KIBI("Ki", 10), MEBI("Mi", 20), GIBI("Gi", 30), TEBI("Ti", 40), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    PEBI("Pi", 50), EXBI("Ei", 60), ZEBI("Zi", 70), YOBI("Yi", 80); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+    private final String symbol;
+    private final PowerOfTwoConverter converter;
+
+    private BinaryPrefix(String symbol, int exponent) {
+        this.symbol = symbol;
+        this.converter = PowerOfTwoConverter.valueOf(exponent);
+    }
+
+    /**
+     * Returns the symbol of this prefix, for example "Ki" for kibi.
+     *
+     * @return the prefix symbol.
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Returns the shared converter from a prefixed unit to the unprefixed unit.
+     *
+     * @return the power of two converter of this prefix.
+     */
+    public PowerOfTwoConverter getConverter() {
+        return converter;
+    }
+
+    /**
+     * Returns the given unit with this prefix.
+     *
+     * @param <Q> the type of the quantity measured by the unit.
+     * @param unit the unit to prefix.
+     * @return the prefixed unit.
+     */
+    public <Q extends Quantity<Q>> Unit<Q> prefix(Unit<Q> unit) {
+        if (unit instanceof TestUnit<?>) {
+            final String base = unit.getSymbol();
+            return new TransformedUnit<Q>((base != null) ? symbol + base : null, (TestUnit<Q>) unit, converter);
+        }
+        return unit.transform(converter);
+    }
+}
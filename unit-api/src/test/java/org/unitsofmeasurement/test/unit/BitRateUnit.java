@@ -8,6 +8,7 @@
 package org.unitsofmeasurement.test.unit;
 
 import org.unitsofmeasurement.quantity.InformationRate;
+import org.unitsofmeasurement.unit.Dimension;
 import org.unitsofmeasurement.unit.Unit;
 
 
@@ -17,6 +18,8 @@ import org.unitsofmeasurement.unit.Unit;
  */
 public class BitRateUnit extends TestUnit<InformationRate> {
 
+    private static final Dimension DIMENSION = PackedDimension.INFORMATION.divide(PackedDimension.TIME);
+
     public static final BitRateUnit bps = new BitRateUnit("bps", 1.0); // reference Unit
     public static final BitRateUnit REF_UNIT = bps; // reference Unit
     public static final BitRateUnit kb = new BitRateUnit("kb", 1.0e3);
@@ -30,4 +33,9 @@ public class BitRateUnit extends TestUnit<InformationRate> {
     public Unit<InformationRate> getSystemUnit() {
         return REF_UNIT;
     }
+
+    @Override
+    public Dimension getDimension() {
+        return DIMENSION;
+    }
 }
@@ -8,6 +8,7 @@
 package org.unitsofmeasurement.test.unit;
 
 import org.unitsofmeasurement.quantity.Information;
+import org.unitsofmeasurement.unit.Dimension;
 import org.unitsofmeasurement.unit.Unit;
 
 
@@ -17,6 +18,8 @@ import org.unitsofmeasurement.unit.Unit;
  */
 public class BitUnit extends TestUnit<Information> {
 
+    private static final Dimension DIMENSION = PackedDimension.INFORMATION;
+
     public static final BitUnit bit = new BitUnit("bit", 1.0); // reference Unit
     public static final BitUnit REF_UNIT = bit; // reference Unit
     public static final BitUnit kb = new BitUnit("kb", 1.0e3);
@@ -30,4 +33,9 @@ public class BitUnit extends TestUnit<Information> {
     public Unit<Information> getSystemUnit() {
         return REF_UNIT;
     }
+
+    @Override
+    public Dimension getDimension() {
+        return DIMENSION;
+    }
 }
@@ -0,0 +1,252 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * A converter tree compiled into a flat program of primitive operations. The
+ * {@linkplain UnitConverter#getCompoundConverters() stages} of the original converter
+ * are flattened in application order, adjacent affine stages are fused and their
+ * constants folded into the neighbouring logarithm or exponential, so that
+ * {@link #convert(double)} is a single loop over {@code double} constants without
+ * any call through the {@code UnitConverter} interface. Only stages of unknown
+ * type are still invoked through the interface.
+ *
+ * <p>Since every compiled converter is an instance of this final class, call sites
+ * converting between many different pairs of units stay monomorphic.</p>
+ *
+ * [code]
+ *     UnitConverter c = CompiledConverter.compile(unit.getConverterTo(other));
+ * [/code]
+ *
+ * @version 1.0
+ */
+public final class CompiledConverter extends TestConverter {
+    /** {@code x = x*p + q}. */
+    private static final int AFFINE = 0;
+
+    /** {@code x = log(x)*p + q}. */
+    private static final int LOG = 1;
+
+    /** {@code x = exp(x*p + q)}. */
+    private static final int EXP = 2;
+
+    /** {@code x = calls[i].convert(x)}. */
+    private static final int CALL = 3;
+
+    private final int[] ops;
+    private final double[] p;
+    private final double[] q;
+    private final UnitConverter[] calls;
+
+    /**
+     * The converter which has been compiled, used for the exact and introspection methods.
+     */
+    private final UnitConverter source;
+
+    private CompiledConverter(UnitConverter source, Program program) {
+        this.source = source;
+        final int n = program.ops.size();
+        ops = new int[n];
+        p = new double[n];
+        q = new double[n];
+        calls = new UnitConverter[n];
+        for (int i = 0; i < n; i++) {
+            ops[i] = program.ops.get(i);
+            p[i] = program.p.get(i);
+            q[i] = program.q.get(i);
+            calls[i] = program.calls.get(i);
+        }
+    }
+
+    /**
+     * Compiles the given converter. Converters which are already a single affine
+     * operation are returned unchanged, since there is nothing to gain.
+     *
+     * @param  converter the converter to compile.
+     * @return a converter performing the same conversion than the given one.
+     */
+    public static UnitConverter compile(UnitConverter converter) {
+        if (converter instanceof CompiledConverter || converter.isIdentity()
+                || (converter instanceof TestConverter && ((TestConverter) converter).isAffine()))
+        {
+            return converter;
+        }
+        final Program program = new Program();
+        program.append(converter);
+        return new CompiledConverter(converter, program);
+    }
+
+    /**
+     * The list of operations while compiling, in application order.
+     */
+    private static final class Program {
+        final List<Integer> ops = new ArrayList<Integer>();
+        final List<Double> p = new ArrayList<Double>();
+        final List<Double> q = new ArrayList<Double>();
+        final List<UnitConverter> calls = new ArrayList<UnitConverter>();
+
+        /**
+         * Appends the operations of the given converter, which is applied after
+         * the operations already in this program.
+         */
+        void append(UnitConverter converter) {
+            if (converter.isIdentity()) {
+                return;
+            }
+            if (converter instanceof TestConverter && ((TestConverter) converter).isAffine()) {
+                final TestConverter c = (TestConverter) converter;
+                affine(c.getScale(), c.getOffset());
+            } else if (converter instanceof LogConverter) {
+                add(LOG, 1 / Math.log(((LogConverter) converter).getBase()), 0, null);
+            } else if (converter instanceof ExpConverter) {
+                add(EXP, Math.log(((ExpConverter) converter).getBase()), 0, null);
+            } else {
+                final List<? extends UnitConverter> stages = converter.getCompoundConverters();
+                if (stages != null) {
+                    for (int i = stages.size(); --i >= 0;) {
+                        append(stages.get(i));
+                    }
+                } else {
+                    add(CALL, 1, 0, converter);
+                }
+            }
+        }
+
+        /**
+         * Appends {@code x*scale + offset}, folded into the previous operation if possible.
+         */
+        private void affine(double scale, double offset) {
+            final int last = ops.size() - 1;
+            if (last >= 0) {
+                switch (ops.get(last)) {
+                    case AFFINE:
+                    case LOG: {
+                        p.set(last, p.get(last) * scale);
+                        q.set(last, q.get(last) * scale + offset);
+                        return;
+                    }
+                }
+            }
+            add(AFFINE, scale, offset, null);
+        }
+
+        private void add(int op, double scale, double offset, UnitConverter call) {
+            final int last = ops.size() - 1;
+            if (op == EXP && last >= 0 && ops.get(last) == AFFINE) {
+                // exp((x*a + b)*p) = exp(x*(a*p) + b*p)
+                final double a = p.get(last);
+                final double b = q.get(last);
+                p.set(last, a * scale);
+                q.set(last, b * scale);
+                ops.set(last, EXP);
+                return;
+            }
+            ops.add(op);
+            p.add(scale);
+            q.add(offset);
+            calls.add(call);
+        }
+    }
+
+    @Override
+    public boolean isLinear() {
+        return source.isLinear();
+    }
+
+    @Override
+    public UnitConverter inverse() {
+        return compile(source.inverse());
+    }
+
+    @Override
+    public double convert(double value) {
+        final int[] ops = this.ops;
+        for (int i = 0; i < ops.length; i++) {
+            switch (ops[i]) {
+                case AFFINE: value = value * p[i] + q[i]; break;
+                case LOG:    value = Math.log(value) * p[i] + q[i]; break;
+                case EXP:    value = Math.exp(value * p[i] + q[i]); break;
+                default:     value = calls[i].convert(value); break;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Applies the operations one after the other over the whole range, so each pass
+     * is a tight loop without any branch.
+     */
+    @Override
+    public void convert(double[] src, int srcOff, double[] dst, int dstOff, int length) {
+        checkRange(src.length, srcOff, dst.length, dstOff, length);
+        if (src != dst || srcOff != dstOff) {
+            System.arraycopy(src, srcOff, dst, dstOff, length);
+        }
+        final int end = dstOff + length;
+        for (int i = 0; i < ops.length; i++) {
+            final double a = p[i];
+            final double b = q[i];
+            switch (ops[i]) {
+                case AFFINE: {
+                    LinearKernel.getInstance().apply(dst, dstOff, dst, dstOff, length, a, b);
+                    break;
+                }
+                case LOG: {
+                    for (int j = dstOff; j < end; j++) dst[j] = Math.log(dst[j]) * a + b;
+                    break;
+                }
+                case EXP: {
+                    for (int j = dstOff; j < end; j++) dst[j] = Math.exp(dst[j] * a + b);
+                    break;
+                }
+                default: {
+                    calls[i].convert(dst, dstOff, dst, dstOff, length);
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public BigDecimal convert(BigDecimal value, MathContext ctx) throws ArithmeticException {
+        return source.convert(value, ctx);
+    }
+
+    @Override
+    public long convertExact(long value) throws ArithmeticException {
+        return source.convertExact(value);
+    }
+
+    @Override
+    public List<? extends UnitConverter> getCompoundConverters() {
+        return source.getCompoundConverters();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return (obj instanceof CompiledConverter) && source.equals(((CompiledConverter) obj).source);
+    }
+
+    @Override
+    public int hashCode() {
+        return ~source.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledConverter(" + source + ')';
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+public class CompiledConverterTest {
+    // Power ratio in decibels to milli-watts: first the dB scale, then the exponential.
+    private final UnitConverter dBmToW = new MultiplyConverter(0.001)
+            .concatenate(new ExpConverter(10)).concatenate(new MultiplyConverter(0.1));
+
+    @Test
+    public void testCompile() {
+        UnitConverter c = CompiledConverter.compile(dBmToW);
+        assertTrue(c instanceof CompiledConverter);
+        for (double x = -30; x <= 30; x += 7.5) {
+            assertEquals(dBmToW.convert(x), c.convert(x), 1e-12 * dBmToW.convert(x));
+        }
+        assertEquals(20, c.inverse().convert(0.1), 1e-12);
+    }
+
+    @Test
+    public void testCompileArray() {
+        UnitConverter c = CompiledConverter.compile(new LogConverter(10).concatenate(new MultiplyConverter(100)));
+        double[] values = {0.1, 1, 10};
+        c.convert(values, 0, values, 0, values.length);
+        assertArrayEquals(new double[] {1, 2, 3}, values, 1e-12);
+    }
+
+    @Test
+    public void testAffineUnchanged() {
+        UnitConverter c = new MultiplyConverter(2).concatenate(new AddConverter(1));
+        assertSame(c, CompiledConverter.compile(c));
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * The concatenation of two converters. The right converter is applied first,
+ * then the left converter. Bulk conversions are delegated stage by stage, so
+ * each stage can run its own tight loop over the whole array.
+ *
+ * @version 1.0
+ */
+public class CompoundConverter extends TestConverter {
+    private final UnitConverter left;
+    private final UnitConverter right;
+
+    public CompoundConverter(UnitConverter left, UnitConverter right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override
+    public boolean isLinear() {
+        return left.isLinear() && right.isLinear();
+    }
+
+    @Override
+    public UnitConverter inverse() {
+        return new CompoundConverter(right.inverse(), left.inverse());
+    }
+
+    @Override
+    public double convert(double value) {
+        return left.convert(right.convert(value));
+    }
+
+    @Override
+    public BigDecimal convert(BigDecimal value, MathContext ctx) throws ArithmeticException {
+        return left.convert(right.convert(value, ctx), ctx);
+    }
+
+    /**
+     * Converts exactly through both stages. Only the final result needs to be an integer.
+     */
+    @Override
+    public long convertExact(long value) throws ArithmeticException {
+        return convertExact(this, value);
+    }
+
+    @Override
+    public void convert(double[] src, int srcOff, double[] dst, int dstOff, int length) {
+        right.convert(src, srcOff, dst, dstOff, length);
+        left.convert(dst, dstOff, dst, dstOff, length);
+    }
+
+    @Override
+    public void convert(float[] src, int srcOff, float[] dst, int dstOff, int length) {
+        right.convert(src, srcOff, dst, dstOff, length);
+        left.convert(dst, dstOff, dst, dstOff, length);
+    }
+
+    /**
+     * Fuses the given converter with the right-most stage of this chain when both are affine.
+     */
+    @Override
+    public UnitConverter concatenate(UnitConverter converter) {
+        if ((right instanceof TestConverter) && (converter instanceof TestConverter)
+                && ((TestConverter) right).isAffine() && ((TestConverter) converter).isAffine())
+        {
+            return new CompoundConverter(left, right.concatenate(converter));
+        }
+        return super.concatenate(converter);
+    }
+
+    @Override
+    public List<? extends UnitConverter> getCompoundConverters() {
+        final List<UnitConverter> list = new ArrayList<UnitConverter>();
+        addStages(left, list);
+        addStages(right, list);
+        return Collections.unmodifiableList(list);
+    }
+
+    private static void addStages(UnitConverter converter, List<UnitConverter> list) {
+        final List<? extends UnitConverter> stages = converter.getCompoundConverters();
+        if (stages != null) {
+            list.addAll(stages);
+        } else {
+            list.add(converter);
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof CompoundConverter))
+            return false;
+        CompoundConverter that = (CompoundConverter) obj;
+        return left.equals(that.left) && right.equals(that.right);
+    }
+
+    @Override
+    public int hashCode() {
+        return left.hashCode() * 31 + right.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return left + " \u2218 " + right;
+    }
+}
@@ -0,0 +1,282 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.unitsofmeasurement.service.SystemOfUnitsService;
+import org.unitsofmeasurement.unit.Dimension;
+import org.unitsofmeasurement.unit.IncommensurableException;
+import org.unitsofmeasurement.unit.SystemOfUnits;
+import org.unitsofmeasurement.unit.UnconvertibleException;
+import org.unitsofmeasurement.unit.Unit;
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * Resolves converters between units of the same dimension by routing through intermediate
+ * units, possibly defined in different {@linkplain SystemOfUnits systems of units}. Units
+ * are grouped in clusters of equal {@linkplain Unit#getDimension() dimension}. Within a
+ * cluster, the edges are the converters each unit resolves directly to the others, plus
+ * the {@linkplain #addBridge bridges} declared explicitly.
+ *
+ * <p>On the first request for a cluster, the cheapest path between every pair of units is
+ * computed (Floyd-Warshall), and the converters along each path are concatenated into one
+ * fused converter, which is then cached. The cost of a path counts its conversion stages,
+ * exact stages (identity, rational, power of ten or two) being cheaper than floating-point
+ * ones, so the path with the fewest and most exact stages wins.</p>
+ *
+ * @version 1.0
+ */
+public class ConversionGraph {
+    /**
+     * Cost of an exact conversion stage, and of an inexact one.
+     */
+    private static final int EXACT_COST = 2, INEXACT_COST = 3;
+
+    /**
+     * Cost meaning no path.
+     */
+    private static final int NO_PATH = Integer.MAX_VALUE;
+
+    /**
+     * The units of each cluster, keyed by dimension. Guarded by {@code this}.
+     */
+    private final Map<Dimension, List<Unit<?>>> units = new HashMap<Dimension, List<Unit<?>>>();
+
+    /**
+     * Converters declared explicitly, keyed by (source, target). Guarded by {@code this}.
+     */
+    private final Map<ConverterCache.Key, UnitConverter> bridges = new HashMap<ConverterCache.Key, UnitConverter>();
+
+    /**
+     * The resolved clusters. Removed when a unit or bridge is added to the cluster.
+     */
+    private final ConcurrentHashMap<Dimension, Cluster> clusters = new ConcurrentHashMap<Dimension, Cluster>();
+
+    /**
+     * Creates a graph over all units of all systems of units provided by the given service.
+     *
+     * @param service the service providing the systems of units.
+     */
+    public ConversionGraph(SystemOfUnitsService service) {
+        addAll(service.getSystemOfUnits().getUnits());
+        for (String name : service.getSystemOfUnitNames()) {
+            final SystemOfUnits system = service.getSystemOfUnits(name);
+            if (system != null) {
+                addAll(system.getUnits());
+            }
+        }
+    }
+
+    /**
+     * Creates a graph over the given units.
+     *
+     * @param units the units to route between.
+     */
+    public ConversionGraph(Collection<? extends Unit<?>> units) {
+        addAll(units);
+    }
+
+    /**
+     * Adds the given units to the graph.
+     *
+     * @param added the units to add.
+     */
+    public synchronized void addAll(Collection<? extends Unit<?>> added) {
+        for (Unit<?> unit : added) {
+            add(unit);
+        }
+    }
+
+    /**
+     * Adds the given unit to its cluster, if not already present.
+     */
+    private void add(Unit<?> unit) {
+        final Dimension dimension = unit.getDimension();
+        List<Unit<?>> cluster = units.get(dimension);
+        if (cluster == null) {
+            cluster = new ArrayList<Unit<?>>();
+            units.put(dimension, cluster);
+        }
+        if (!cluster.contains(unit)) {
+            cluster.add(unit);
+            clusters.remove(dimension);
+        }
+    }
+
+    /**
+     * Declares a converter between two units, for example between units of different
+     * implementations which can not resolve a converter to each other. The inverse
+     * direction is declared too, using the inverse converter.
+     *
+     * @param source the unit to convert from.
+     * @param target the unit to convert to.
+     * @param converter the converter from source to target.
+     * @throws IllegalArgumentException if the units have different dimensions.
+     */
+    public synchronized void addBridge(Unit<?> source, Unit<?> target, UnitConverter converter) {
+        final Dimension dimension = source.getDimension();
+        if (!dimension.equals(target.getDimension())) {
+            throw new IllegalArgumentException(source + " and " + target + " have different dimensions"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        add(source);
+        add(target);
+        bridges.put(new ConverterCache.Key(source, target), converter);
+        bridges.put(new ConverterCache.Key(target, source), converter.inverse());
+        clusters.remove(dimension);
+    }
+
+    /**
+     * Returns the fused converter along the cheapest path from the source to the target unit.
+     * Units not yet in the graph are added to it.
+     *
+     * @param source the unit to convert from.
+     * @param target the unit to convert to.
+     * @return the converter from source to target.
+     * @throws IncommensurableException if the units have different dimensions.
+     * @throws UnconvertibleException if no path connects the units.
+     */
+    public UnitConverter getConverter(Unit<?> source, Unit<?> target)
+            throws IncommensurableException, UnconvertibleException
+    {
+        final Dimension dimension = source.getDimension();
+        if (!dimension.equals(target.getDimension())
+                || (source instanceof TestUnit<?> && target instanceof TestUnit<?> && !source.isCompatible(target)))
+        {
+            throw new IncommensurableException(source + " is not compatible with " + target); //$NON-NLS-1$
+        }
+        Cluster cluster = clusters.get(dimension);
+        if (cluster == null || !cluster.contains(source) || !cluster.contains(target)) {
+            cluster = resolve(dimension, source, target);
+        }
+        final UnitConverter converter = cluster.get(source, target);
+        if (converter == null) {
+            throw new UnconvertibleException("No conversion path from " + source + " to " + target); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return converter;
+    }
+
+    /**
+     * Computes the cluster of the given dimension, after adding the given units to the graph.
+     */
+    private synchronized Cluster resolve(Dimension dimension, Unit<?> source, Unit<?> target) {
+        add(source);
+        add(target);
+        Cluster cluster = clusters.get(dimension);
+        if (cluster == null) {
+            cluster = new Cluster(units.get(dimension));
+            clusters.put(dimension, cluster);
+        }
+        return cluster;
+    }
+
+    /**
+     * Returns the converter of the direct edge between two units, or {@code null} if none.
+     * If the converters between the units and their system unit are given, the edge is built
+     * from them rather than through {@link Unit#getConverterToAny(Unit)}, so that resolving
+     * all pairs of a cluster does not flood the converter cache shared by the test units.
+     * Must be invoked while holding the lock.
+     */
+    private UnitConverter edge(Unit<?> source, Unit<?> target, UnitConverter sourceToSystem,
+            UnitConverter systemToTarget)
+    {
+        final UnitConverter bridge = bridges.get(new ConverterCache.Key(source, target));
+        if (bridge != null) {
+            return bridge;
+        }
+        if (sourceToSystem != null && systemToTarget != null) {
+            return source.isCompatible(target) ? systemToTarget.concatenate(sourceToSystem) : null;
+        }
+        try {
+            return source.getConverterToAny(target);
+        } catch (IncommensurableException e) {
+            return null;
+        } catch (UnconvertibleException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the cost of a conversion through the given converter.
+     */
+    private static int cost(UnitConverter converter) {
+        if (converter.isIdentity()) {
+            return 0;
+        }
+        final List<? extends UnitConverter> stages = converter.getCompoundConverters();
+        if (stages == null) {
+            return (RationalConverter.asRational(converter) != null) ? EXACT_COST : INEXACT_COST;
+        }
+        int cost = 0;
+        for (UnitConverter stage : stages) {
+            cost += cost(stage);
+        }
+        return cost;
+    }
+
+    /**
+     * The units of one dimension and the fused converters between all of them.
+     */
+    private final class Cluster {
+        private final Map<Unit<?>, Integer> index = new HashMap<Unit<?>, Integer>();
+        private final UnitConverter[][] converters;
+
+        Cluster(List<Unit<?>> members) {
+            final int n = members.size();
+            for (int i = 0; i < n; i++) {
+                index.put(members.get(i), i);
+            }
+            final UnitConverter[] toSystem = new UnitConverter[n];
+            final UnitConverter[] fromSystem = new UnitConverter[n];
+            for (int i = 0; i < n; i++) {
+                final Unit<?> unit = members.get(i);
+                if (unit instanceof TestUnit<?>) {
+                    toSystem[i] = ((TestUnit<?>) unit).getSystemConverter();
+                    fromSystem[i] = toSystem[i].inverse();
+                }
+            }
+            converters = new UnitConverter[n][n];
+            final int[][] costs = new int[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    final UnitConverter c = (i == j) ? MultiplyConverter.IDENTITY
+                            : edge(members.get(i), members.get(j), toSystem[i], fromSystem[j]);
+                    converters[i][j] = c;
+                    costs[i][j] = (c != null) ? cost(c) : NO_PATH;
+                }
+            }
+            for (int k = 0; k < n; k++) {
+                for (int i = 0; i < n; i++) {
+                    if (costs[i][k] == NO_PATH) {
+                        continue;
+                    }
+                    for (int j = 0; j < n; j++) {
+                        if (costs[k][j] != NO_PATH && costs[i][k] + costs[k][j] < costs[i][j]) {
+                            costs[i][j] = costs[i][k] + costs[k][j];
+                            converters[i][j] = converters[k][j].concatenate(converters[i][k]);
+                        }
+                    }
+                }
+            }
+        }
+
+        boolean contains(Unit<?> unit) {
+            return index.containsKey(unit);
+        }
+
+        UnitConverter get(Unit<?> source, Unit<?> target) {
+            return converters[index.get(source)][index.get(target)];
+        }
+    }
+}
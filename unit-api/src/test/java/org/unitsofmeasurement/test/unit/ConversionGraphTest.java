@@ -0,0 +1,81 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.unitsofmeasurement.quantity.ElectricCurrent;
+import org.unitsofmeasurement.quantity.Temperature;
+import org.unitsofmeasurement.unit.IncommensurableException;
+import org.unitsofmeasurement.unit.UnconvertibleException;
+import org.unitsofmeasurement.unit.Unit;
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+public class ConversionGraphTest {
+    /**
+     * A length unit from a foreign implementation, which can not convert to test units.
+     */
+    private static Unit<?> foreignUnit(final String symbol) {
+        return (Unit<?>) Proxy.newProxyInstance(Unit.class.getClassLoader(), new Class<?>[] {Unit.class},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        final String name = method.getName();
+                        if (name.equals("getDimension")) {
+                            return PackedDimension.LENGTH;
+                        } else if (name.equals("hashCode")) {
+                            return System.identityHashCode(proxy);
+                        } else if (name.equals("equals")) {
+                            return proxy == args[0];
+                        } else if (name.equals("toString") || name.equals("getSymbol")) {
+                            return symbol;
+                        }
+                        throw new UnconvertibleException(name);
+                    }
+                });
+    }
+
+    @Test
+    public void testRouteThroughBridge() throws Exception {
+        Unit<?> foot = foreignUnit("ft");
+        ConversionGraph graph = new ConversionGraph(Arrays.asList(DistanceUnit.km, DistanceUnit.in, DistanceUnit.m));
+        graph.addBridge(foot, DistanceUnit.in, new RationalConverter(12, 1));
+        UnitConverter c = graph.getConverter(foot, DistanceUnit.km);
+        assertEquals(0.3048e-3, c.convert(1.0), 1e-15);
+        assertTrue(c instanceof AffineConverter); // Fused in a single multiplication.
+        assertEquals(1 / 0.3048e-3, graph.getConverter(DistanceUnit.km, foot).convert(1.0), 1e-9);
+    }
+
+    @Test
+    public void testSharedCacheUntouched() throws Exception {
+        ConversionGraph graph = new ConversionGraph(Arrays.asList(DistanceUnit.km, DistanceUnit.in, DistanceUnit.m, DistanceUnit.cm));
+        TestUnit.CONVERTERS.clear();
+        assertEquals(2.54e-5, graph.getConverter(DistanceUnit.in, DistanceUnit.km).convert(1.0), 1e-18);
+        assertEquals(0, TestUnit.CONVERTERS.size());
+    }
+
+    @Test(expected = IncommensurableException.class)
+    public void testBaseUnitsIncompatible() throws Exception {
+        final Unit<?> ampere = new BaseUnit<ElectricCurrent>("A");
+        final Unit<?> kelvin = new BaseUnit<Temperature>("K");
+        new ConversionGraph(Arrays.asList(ampere, kelvin)).getConverter(ampere, kelvin);
+    }
+
+    @Test(expected = UnconvertibleException.class)
+    public void testNoPath() throws Exception {
+        ConversionGraph graph = new ConversionGraph(Arrays.asList(DistanceUnit.m));
+        graph.getConverter(foreignUnit("ft"), DistanceUnit.m);
+    }
+}
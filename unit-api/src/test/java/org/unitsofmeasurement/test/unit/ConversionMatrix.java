@@ -0,0 +1,275 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.unitsofmeasurement.unit.Dimension;
+import org.unitsofmeasurement.unit.IncommensurableException;
+import org.unitsofmeasurement.unit.SystemOfUnits;
+import org.unitsofmeasurement.unit.UnconvertibleException;
+import org.unitsofmeasurement.unit.Unit;
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * Precomputed conversions between all units of a {@link SystemOfUnits}, addressed by dense
+ * integer unit identifiers. Identifiers run from 0 to {@link #size()} - 1 in the iteration
+ * order of {@link SystemOfUnits#getUnits()}. For each dimension, the factor and offset of
+ * the affine conversion between every pair of its units are stored in a square block of two
+ * contiguous {@code double[]} arrays, so converting a value is two array reads, a multiply
+ * and an add, without touching any {@code Unit} or {@code UnitConverter}.
+ *
+ * [code]
+ *     ConversionMatrix matrix = new ConversionMatrix(system);
+ *     int km = matrix.getId(KILOMETRE), mile = matrix.getId(MILE);
+ *     double d = matrix.convert(42, mile, km);
+ * [/code]
+ *
+ * Pairs whose converter is not affine have no entry; converting them throws
+ * {@link UnconvertibleException}.
+ *
+ * @version 1.0
+ */
+public final class ConversionMatrix {
+    /**
+     * The units indexed by identifier.
+     */
+    private final Unit<?>[] units;
+
+    /**
+     * The identifier of each unit.
+     */
+    private final Map<Unit<?>, Integer> ids;
+
+    /**
+     * The dimension block of each unit, as a small integer.
+     */
+    private final int[] blocks;
+
+    /**
+     * For each unit, the index in {@link #factors} of the first entry of its row.
+     */
+    private final int[] rows;
+
+    /**
+     * For each unit, its column within its dimension block.
+     */
+    private final int[] columns;
+
+    /**
+     * The conversion factors and offsets of all dimension blocks, row by row.
+     * NaN marks a pair without affine conversion.
+     */
+    private final double[] factors, offsets;
+
+    /**
+     * Builds the matrices for all units of the given system.
+     *
+     * @param system the system of units.
+     */
+    public ConversionMatrix(SystemOfUnits system) {
+        final Set<? extends Unit<?>> all = system.getUnits();
+        final int n = all.size();
+        units = all.toArray(new Unit<?>[n]);
+        ids = new HashMap<Unit<?>, Integer>();
+        blocks = new int[n];
+        rows = new int[n];
+        columns = new int[n];
+        final Map<Dimension, Integer> blockOfDimension = new HashMap<Dimension, Integer>();
+        final List<List<Integer>> order = new ArrayList<List<Integer>>();
+        for (int id = 0; id < n; id++) {
+            ids.put(units[id], id);
+            final Dimension dimension = units[id].getDimension();
+            Integer b = blockOfDimension.get(dimension);
+            if (b == null) {
+                b = order.size();
+                blockOfDimension.put(dimension, b);
+                order.add(new ArrayList<Integer>());
+            }
+            final List<Integer> block = order.get(b);
+            blocks[id] = b;
+            columns[id] = block.size();
+            block.add(id);
+        }
+        int length = 0;
+        for (List<Integer> block : order) {
+            length += block.size() * block.size();
+        }
+        factors = new double[length];
+        offsets = new double[length];
+        int start = 0;
+        for (List<Integer> block : order) {
+            final int size = block.size();
+            for (int i = 0; i < size; i++) {
+                final int source = block.get(i);
+                rows[source] = start + i * size;
+                for (int j = 0; j < size; j++) {
+                    final int k = rows[source] + j;
+                    final UnitConverter c = converter(units[source], units[block.get(j)]);
+                    if (c instanceof TestConverter && ((TestConverter) c).isAffine()) {
+                        factors[k] = ((TestConverter) c).getScale();
+                        offsets[k] = ((TestConverter) c).getOffset();
+                    } else {
+                        factors[k] = Double.NaN;
+                        offsets[k] = Double.NaN;
+                    }
+                }
+            }
+            start += size * size;
+        }
+    }
+
+    /**
+     * Returns the converter between two units, or {@code null} if none.
+     */
+    private static UnitConverter converter(Unit<?> source, Unit<?> target) {
+        if (source == target) {
+            return MultiplyConverter.IDENTITY;
+        }
+        try {
+            return source.getConverterToAny(target);
+        } catch (IncommensurableException e) {
+            return null;
+        } catch (UnconvertibleException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the number of units, which is also the exclusive upper bound of identifiers.
+     *
+     * @return the number of units.
+     */
+    public int size() {
+        return units.length;
+    }
+
+    /**
+     * Returns the identifier of the given unit, or -1 if the unit is not in the system.
+     *
+     * @param unit the unit for which to get the identifier.
+     * @return the unit identifier, or -1.
+     */
+    public int getId(Unit<?> unit) {
+        final Integer id = ids.get(unit);
+        return (id != null) ? id : -1;
+    }
+
+    /**
+     * Returns the unit of the given identifier.
+     *
+     * @param id the unit identifier.
+     * @return the unit of the given identifier.
+     * @throws IndexOutOfBoundsException if the identifier is out of range.
+     */
+    public Unit<?> getUnit(int id) {
+        return units[id];
+    }
+
+    /**
+     * Returns the index of the matrix entry for the given pair of units.
+     *
+     * @throws UnconvertibleException if the units have no affine conversion.
+     */
+    private int entry(int source, int target) {
+        if (blocks[source] == blocks[target]) {
+            final int k = rows[source] + columns[target];
+            if (!Double.isNaN(factors[k])) {
+                return k;
+            }
+        }
+        throw new UnconvertibleException("No affine conversion from " + units[source] + " to " + units[target]); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Returns {@code true} if values can be converted between the given units.
+     *
+     * @param source the identifier of the unit to convert from.
+     * @param target the identifier of the unit to convert to.
+     * @return whether the conversion is available.
+     */
+    public boolean isConvertible(int source, int target) {
+        return blocks[source] == blocks[target] && !Double.isNaN(factors[rows[source] + columns[target]]);
+    }
+
+    /**
+     * Converts a value between two units.
+     *
+     * @param value the value to convert.
+     * @param source the identifier of the unit to convert from.
+     * @param target the identifier of the unit to convert to.
+     * @return the converted value.
+     * @throws UnconvertibleException if the units have no affine conversion.
+     */
+    public double convert(double value, int source, int target) {
+        final int k = entry(source, target);
+        return value * factors[k] + offsets[k];
+    }
+
+    /**
+     * Converts a column of values all stated in the same unit.
+     *
+     * @param src the values to convert.
+     * @param srcOff index of the first value to convert.
+     * @param dst where to store the converted values (may be {@code src}).
+     * @param dstOff index where to store the first converted value.
+     * @param length number of values to convert.
+     * @param source the identifier of the unit to convert from.
+     * @param target the identifier of the unit to convert to.
+     * @throws UnconvertibleException if the units have no affine conversion.
+     */
+    public void convert(double[] src, int srcOff, double[] dst, int dstOff, int length, int source, int target) {
+        final int k = entry(source, target);
+        TestConverter.checkRange(src.length, srcOff, dst.length, dstOff, length);
+        LinearKernel.getInstance().apply(src, srcOff, dst, dstOff, length, factors[k], offsets[k]);
+    }
+
+    /**
+     * Converts a column of values, each stated in the unit given by the parallel identifier
+     * column, to a common target unit.
+     *
+     * @param src the values to convert.
+     * @param unitIds the unit identifier of each value, indexed like {@code src}.
+     * @param srcOff index of the first value to convert.
+     * @param dst where to store the converted values (may be {@code src}).
+     * @param dstOff index where to store the first converted value.
+     * @param length number of values to convert.
+     * @param target the identifier of the unit to convert to.
+     * @throws UnconvertibleException if a value's unit has no affine conversion to the target.
+     */
+    public void convert(double[] src, int[] unitIds, int srcOff, double[] dst, int dstOff, int length, int target) {
+        TestConverter.checkRange(src.length, srcOff, dst.length, dstOff, length);
+        TestConverter.checkRange(unitIds.length, srcOff, dst.length, dstOff, length);
+        final int block = blocks[target];
+        final int column = columns[target];
+        if (TestConverter.isBackward(src, srcOff, dst, dstOff)) {
+            for (int i = length; --i >= 0;) {
+                final int source = unitIds[srcOff + i];
+                int k = rows[source] + column;
+                if (blocks[source] != block || Double.isNaN(factors[k])) {
+                    k = entry(source, target);
+                }
+                dst[dstOff + i] = src[srcOff + i] * factors[k] + offsets[k];
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                final int source = unitIds[srcOff + i];
+                int k = rows[source] + column;
+                if (blocks[source] != block || Double.isNaN(factors[k])) {
+                    k = entry(source, target);
+                }
+                dst[dstOff + i] = src[srcOff + i] * factors[k] + offsets[k];
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.unitsofmeasurement.unit.UnconvertibleException;
+
+
+public class ConversionMatrixTest {
+    private final ConversionMatrix matrix = new ConversionMatrix(TestSystemOfUnits.getInstance());
+
+    @Test
+    public void testIds() {
+        assertEquals(TestSystemOfUnits.getInstance().getUnits().size(), matrix.size());
+        for (int id = 0; id < matrix.size(); id++) {
+            assertEquals(id, matrix.getId(matrix.getUnit(id)));
+        }
+        assertEquals(-1, matrix.getId(new DistanceUnit("furlong", 201.168)));
+    }
+
+    @Test
+    public void testConvert() {
+        final int mile = matrix.getId(DistanceUnit.mile);
+        final int km = matrix.getId(DistanceUnit.km);
+        assertEquals(1.609, matrix.convert(1, mile, km), 1e-12);
+        assertEquals(1000 / 1609.0, matrix.convert(1, km, mile), 1e-12);
+        assertEquals(42, matrix.convert(42, km, km), 0);
+        assertTrue(matrix.isConvertible(mile, km));
+        assertFalse(matrix.isConvertible(mile, matrix.getId(TimeUnit.s)));
+    }
+
+    @Test
+    public void testBulkConvert() {
+        final double[] values = {1, 2, 3, 4};
+        matrix.convert(values, 1, values, 0, 3, matrix.getId(DistanceUnit.km), matrix.getId(DistanceUnit.m));
+        assertArrayEquals(new double[] {2000, 3000, 4000, 4}, values, 0);
+    }
+
+    @Test
+    public void testMixedUnits() {
+        final int[] ids = {matrix.getId(DistanceUnit.km), matrix.getId(DistanceUnit.cm), matrix.getId(DistanceUnit.m)};
+        final double[] values = {1.5, 250, 7};
+        final double[] result = new double[3];
+        matrix.convert(values, ids, 0, result, 0, 3, matrix.getId(DistanceUnit.m));
+        assertArrayEquals(new double[] {1500, 2.5, 7}, result, 1e-12);
+    }
+
+    @Test(expected = UnconvertibleException.class)
+    public void testMixedDimensions() {
+        final int[] ids = {matrix.getId(DistanceUnit.km), matrix.getId(TimeUnit.h)};
+        matrix.convert(new double[2], ids, 0, new double[2], 0, 2, matrix.getId(DistanceUnit.m));
+    }
+
+    @Test(expected = UnconvertibleException.class)
+    public void testIncompatible() {
+        matrix.convert(1, matrix.getId(DistanceUnit.m), matrix.getId(TimeUnit.s));
+    }
+
+    @Test
+    public void testUnit() {
+        assertSame(DistanceUnit.km, matrix.getUnit(matrix.getId(DistanceUnit.km)));
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import org.unitsofmeasurement.test.util.BoundedCache;
+import org.unitsofmeasurement.unit.Unit;
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * A bounded cache of converters keyed by (source unit, target unit). This class does not
+ * depend on any particular unit implementation: {@link Unit#getConverterToAny(Unit)}
+ * implementations look up the cache first, and store the converter they have resolved
+ * on a miss. For example:
+ *
+ * [code]
+ *     UnitConverter c = cache.get(this, that);
+ *     if (c == null) {
+ *         c = cache.put(this, that, resolveConverterTo(that));
+ *     }
+ * [/code]
+ *
+ * @version 1.0
+ */
+public class ConverterCache extends BoundedCache<ConverterCache.Key, UnitConverter> {
+    /**
+     * Creates a cache holding at most the given number of converters.
+     *
+     * @param capacity the maximal number of converters.
+     */
+    public ConverterCache(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Creates a cache holding at most the given number of converters, evicted with the given policy.
+     *
+     * @param capacity the maximal number of converters.
+     * @param policy the eviction policy.
+     */
+    public ConverterCache(int capacity, Policy policy) {
+        super(capacity, policy);
+    }
+
+    /**
+     * Returns the converter cached from the given source unit to the given target unit,
+     * or {@code null} if none.
+     *
+     * @param source the unit to convert from.
+     * @param target the unit to convert to.
+     * @return the cached converter, or {@code null} if none.
+     */
+    public UnitConverter get(Unit<?> source, Unit<?> target) {
+        return get(new Key(source, target));
+    }
+
+    /**
+     * Caches the given converter from the source unit to the target unit, unless another
+     * converter has been cached concurrently for the same units.
+     *
+     * @param source the unit to convert from.
+     * @param target the unit to convert to.
+     * @param converter the converter from source to target.
+     * @return the converter now cached for the given units.
+     */
+    public UnitConverter put(Unit<?> source, Unit<?> target, UnitConverter converter) {
+        return put(new Key(source, target), converter);
+    }
+
+    /**
+     * The (source unit, target unit) pair used as cache key.
+     */
+    static final class Key {
+        private final Unit<?> source;
+        private final Unit<?> target;
+        private final int hash;
+
+        Key(Unit<?> source, Unit<?> target) {
+            this.source = source;
+            this.target = target;
+            hash = source.hashCode() * 31 + target.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            final Key that = (Key) obj;
+            return hash == that.hash
+                    && (source == that.source || source.equals(that.source))
+                    && (target == that.target || target.equals(that.target));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import org.unitsofmeasurement.test.util.BoundedCache;
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+public class ConverterCacheTest {
+
+    @Test
+    public void testGetConverterTo() {
+        UnitConverter c = DistanceUnit.km.getConverterTo(DistanceUnit.cm);
+        assertEquals(100000, c.convert(1), 1e-9);
+        assertSame(c, DistanceUnit.km.getConverterTo(DistanceUnit.cm));
+        assertTrue(DistanceUnit.m.getConverterTo(DistanceUnit.m).isIdentity());
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        ConverterCache cache = new ConverterCache(8);
+        assertNull(cache.get(DistanceUnit.km, DistanceUnit.m));
+        UnitConverter c = new MultiplyConverter(1000);
+        assertSame(c, cache.put(DistanceUnit.km, DistanceUnit.m, c));
+        assertSame(c, cache.put(DistanceUnit.km, DistanceUnit.m, new MultiplyConverter(1000)));
+        assertSame(c, cache.get(DistanceUnit.km, DistanceUnit.m));
+        assertNull(cache.get(DistanceUnit.m, DistanceUnit.km));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testEviction() {
+        ConverterCache cache = new ConverterCache(4);
+        DistanceUnit[] units = {DistanceUnit.m, DistanceUnit.km, DistanceUnit.cm, DistanceUnit.in};
+        for (DistanceUnit source : units) {
+            for (DistanceUnit target : units) {
+                cache.put(source, target, MultiplyConverter.IDENTITY);
+                assertTrue(cache.size() <= 4);
+            }
+        }
+    }
+
+    @Test
+    public void testClockKeepsReadEntries() {
+        ConverterCache cache = new ConverterCache(2);
+        cache.put(DistanceUnit.m, DistanceUnit.km, MultiplyConverter.IDENTITY);
+        cache.put(DistanceUnit.km, DistanceUnit.m, MultiplyConverter.IDENTITY);
+        cache.get(DistanceUnit.m, DistanceUnit.km);
+        cache.put(DistanceUnit.cm, DistanceUnit.m, MultiplyConverter.IDENTITY);
+        assertSame(MultiplyConverter.IDENTITY, cache.get(DistanceUnit.m, DistanceUnit.km));
+        assertNull(cache.get(DistanceUnit.km, DistanceUnit.m));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testFifoEvictsOldest() {
+        ConverterCache cache = new ConverterCache(2, BoundedCache.Policy.FIFO);
+        cache.put(DistanceUnit.m, DistanceUnit.km, MultiplyConverter.IDENTITY);
+        cache.put(DistanceUnit.km, DistanceUnit.m, MultiplyConverter.IDENTITY);
+        cache.get(DistanceUnit.m, DistanceUnit.km);
+        cache.put(DistanceUnit.cm, DistanceUnit.m, MultiplyConverter.IDENTITY);
+        assertNull(cache.get(DistanceUnit.m, DistanceUnit.km));
+        assertSame(MultiplyConverter.IDENTITY, cache.get(DistanceUnit.km, DistanceUnit.m));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testConcurrentPutsStayBounded() throws InterruptedException {
+        final BoundedCache<Integer, Integer> cache = new BoundedCache<Integer, Integer>(16);
+        final CountDownLatch start = new CountDownLatch(1);
+        final boolean[] exceeded = new boolean[1];
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int base = t * 100000;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 20000; i++) {
+                        cache.put(base + i, i);
+                        if (cache.size() > 16) {
+                            exceeded[0] = true;
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(exceeded[0]);
+        assertTrue(cache.size() <= 16);
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * A lazy, splittable view over an array range whose values are converted on traversal.
+ * Values are never boxed: single values are converted with {@link UnitConverter#convert(double)}
+ * and bulk traversals go through the converter's array methods chunk by chunk. The size of the
+ * view and of every split is known exactly, so work can be divided evenly between threads.
+ *
+ * [code]
+ *     ConvertingSpliterator values = new ConvertingSpliterator(converter, data, 0, data.length);
+ *     ConvertingSpliterator half = values.trySplit();
+ *     double total = values.sum() + half.sum();
+ * [/code]
+ *
+ * @version 1.0
+ */
+public final class ConvertingSpliterator {
+    /**
+     * Receives the converted values.
+     */
+    public interface DoubleConsumer {
+        /**
+         * Accepts the next converted value.
+         *
+         * @param value the converted value.
+         */
+        void accept(double value);
+    }
+
+    /**
+     * Ranges smaller than this are not split further.
+     */
+    private static final int MIN_SPLIT = 1024;
+
+    /**
+     * Number of values converted at once by bulk traversals.
+     */
+    private static final int CHUNK_SIZE = 512;
+
+    private final UnitConverter converter;
+    private final double[] values;
+    private int index;
+    private final int end;
+
+    /**
+     * Creates a view of the given array range.
+     *
+     * @param converter the converter to apply.
+     * @param values the values to convert; not copied, and not modified.
+     * @param offset index of the first value.
+     * @param length number of values.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     */
+    public ConvertingSpliterator(UnitConverter converter, double[] values, int offset, int length) {
+        TestConverter.checkRange(values.length, offset, values.length, offset, length);
+        this.converter = converter;
+        this.values = values;
+        this.index = offset;
+        this.end = offset + length;
+    }
+
+    /**
+     * Returns the exact number of values remaining.
+     *
+     * @return the remaining number of values.
+     */
+    public int estimateSize() {
+        return end - index;
+    }
+
+    /**
+     * Converts the next value, if any, and passes it to the given consumer.
+     *
+     * @param action the consumer of the converted value.
+     * @return {@code false} if no value remained.
+     */
+    public boolean tryAdvance(DoubleConsumer action) {
+        if (index >= end) {
+            return false;
+        }
+        action.accept(converter.convert(values[index++]));
+        return true;
+    }
+
+    /**
+     * Converts all remaining values in chunks and passes them to the given consumer.
+     *
+     * @param action the consumer of the converted values.
+     */
+    public void forEachRemaining(DoubleConsumer action) {
+        final double[] buffer = new double[Math.min(end - index, CHUNK_SIZE)];
+        while (index < end) {
+            final int n = Math.min(end - index, buffer.length);
+            converter.convert(values, index, buffer, 0, n);
+            index += n;
+            for (int i = 0; i < n; i++) {
+                action.accept(buffer[i]);
+            }
+        }
+    }
+
+    /**
+     * Splits off the first half of the remaining values, or returns {@code null}
+     * if the range is too small to be worth splitting.
+     *
+     * @return a view of the first half, or {@code null}.
+     */
+    public ConvertingSpliterator trySplit() {
+        final int half = (end - index) >>> 1;
+        if (half < MIN_SPLIT) {
+            return null;
+        }
+        final ConvertingSpliterator prefix = new ConvertingSpliterator(converter, values, index, half);
+        index += half;
+        return prefix;
+    }
+
+    /**
+     * Converts all remaining values into a new array.
+     *
+     * @return the converted values.
+     */
+    public double[] toArray() {
+        final double[] result = new double[end - index];
+        converter.convert(values, index, result, 0, result.length);
+        index = end;
+        return result;
+    }
+
+    /**
+     * Returns the sum of all remaining converted values.
+     *
+     * @return the sum of the converted values.
+     */
+    public double sum() {
+        final double[] buffer = new double[Math.min(end - index, CHUNK_SIZE)];
+        double sum = 0;
+        while (index < end) {
+            final int n = Math.min(end - index, buffer.length);
+            converter.convert(values, index, buffer, 0, n);
+            index += n;
+            for (int i = 0; i < n; i++) {
+                sum += buffer[i];
+            }
+        }
+        return sum;
+    }
+}
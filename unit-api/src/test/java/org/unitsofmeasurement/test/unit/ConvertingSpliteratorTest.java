@@ -0,0 +1,58 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+public class ConvertingSpliteratorTest {
+    private final UnitConverter doubler = new MultiplyConverter(2);
+
+    private static double[] ramp(int n) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+
+    @Test
+    public void testSplitAndSum() {
+        ConvertingSpliterator values = new ConvertingSpliterator(doubler, ramp(5000), 0, 5000);
+        ConvertingSpliterator prefix = values.trySplit();
+        assertEquals(2500, prefix.estimateSize());
+        assertEquals(2500, values.estimateSize());
+        assertEquals(5000.0 * 4999, prefix.sum() + values.sum(), 0);
+        assertEquals(0, values.estimateSize());
+    }
+
+    @Test
+    public void testTraversal() {
+        ConvertingSpliterator values = new ConvertingSpliterator(doubler, ramp(10), 2, 5);
+        assertNull(values.trySplit());
+        final double[] last = new double[1];
+        assertTrue(values.tryAdvance(new ConvertingSpliterator.DoubleConsumer() {
+            public void accept(double value) {
+                last[0] = value;
+            }
+        }));
+        assertEquals(4.0, last[0], 0);
+        values.forEachRemaining(new ConvertingSpliterator.DoubleConsumer() {
+            public void accept(double value) {
+                last[0] = value;
+            }
+        });
+        assertEquals(12.0, last[0], 0);
+        assertEquals(0, values.toArray().length);
+    }
+}
@@ -7,6 +7,7 @@
  */
 package org.unitsofmeasurement.test.unit;
 
+import org.unitsofmeasurement.unit.Dimension;
 import org.unitsofmeasurement.unit.Unit;
 import org.unitsofmeasurement.quantity.Length;
 
@@ -16,6 +17,8 @@ import org.unitsofmeasurement.quantity.Length;
  */
 public class DistanceUnit extends BaseUnit<Length> {
 
+    private static final Dimension DIMENSION = PackedDimension.LENGTH;
+
     public static final DistanceUnit m = new DistanceUnit("m", 1.0); // reference
     // Unit
     public static final DistanceUnit REF_UNIT = m; // reference Unit
@@ -28,13 +31,13 @@ public class DistanceUnit extends BaseUnit<Length> {
     public static final DistanceUnit parsec = new DistanceUnit("parsec", 3.08e+16);
 
     public DistanceUnit(String name2, double convF) {
-        super("", name2);
+        super(name2, name2);
         name = name2;
         multFactor = convF;
     }
 
     public DistanceUnit(String name2, DistanceUnit unit, double convF) {
-        super("", name2);
+        super(name2, name2);
         name = name2;
         multFactor = unit.multFactor * convF;
     }
@@ -43,4 +46,9 @@ public class DistanceUnit extends BaseUnit<Length> {
     public Unit<Length> getSystemUnit() {
         return REF_UNIT;
     }
+
+    @Override
+    public Dimension getDimension() {
+        return DIMENSION;
+    }
 }
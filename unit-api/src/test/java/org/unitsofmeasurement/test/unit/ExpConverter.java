@@ -0,0 +1,66 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * An exponential converter raising a base to the power of the numeric values.
+ * The inverse of this converter is a {@link LogConverter} of same base.
+ *
+ * @version 1.0
+ */
+public class ExpConverter extends TestConverter {
+    private final double base;
+    private final double logOfBase;
+
+    public ExpConverter(double base) {
+        this.base = base;
+        this.logOfBase = Math.log(base);
+    }
+
+    public double getBase() {
+        return base;
+    }
+
+    @Override
+    public boolean isLinear() {
+        return false;
+    }
+
+    @Override
+    public UnitConverter inverse() {
+        return new LogConverter(base);
+    }
+
+    @Override
+    public double convert(double value) {
+        return Math.exp(logOfBase * value);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof ExpConverter))
+            return false;
+        return Double.doubleToLongBits(base) == Double.doubleToLongBits(((ExpConverter) obj).base);
+    }
+
+    @Override
+    public int hashCode() {
+        final long bits = Double.doubleToLongBits(base);
+        return (int) (bits ^ (bits >>> 32)) + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "ExpConverter(" + base + ')';
+    }
+}
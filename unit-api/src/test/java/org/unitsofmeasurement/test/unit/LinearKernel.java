@@ -0,0 +1,243 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+
+/**
+ * The loops computing {@code x*scale + offset} over arrays, shared by all affine converters.
+ * The default implementation is a plain scalar loop, written in the simple counted form that
+ * the HotSpot compiler can vectorize by itself. Another implementation, such as the
+ * {@link Unrolled} kernel for compilers which do not vectorize, or one using SIMD instructions
+ * on a newer platform, can be plugged in by setting the {@value #KERNEL_PROPERTY} system
+ * property to the name of a {@code LinearKernel} subclass having a public no-argument
+ * constructor. If that class can not be loaded on the running platform, or is not a
+ * {@code LinearKernel}, the scalar loop is used.
+ *
+ * @version 1.0
+ */
+public abstract class LinearKernel {
+    /**
+     * The system property giving the name of the kernel implementation class.
+     */
+    public static final String KERNEL_PROPERTY = "org.unitsofmeasurement.linearKernel";
+
+    /**
+     * The scalar kernel, also used by other kernels for the cases they do not specialize.
+     */
+    private static final LinearKernel SCALAR = new Scalar();
+
+    /**
+     * The kernel in use, fixed for the lifetime of the JVM so that calls are monomorphic.
+     */
+    private static final LinearKernel INSTANCE = load(System.getProperty(KERNEL_PROPERTY));
+
+    protected LinearKernel() {
+    }
+
+    /**
+     * Returns the kernel used by the affine converters.
+     *
+     * @return the linear kernel in use.
+     */
+    public static LinearKernel getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a new instance of the named kernel class, or the scalar kernel if the name is
+     * {@code null} or does not name a loadable {@code LinearKernel} subclass.
+     */
+    static LinearKernel load(String name) {
+        if (name != null) {
+            try {
+                final Object kernel = Class.forName(name).getConstructor().newInstance();
+                if (kernel instanceof LinearKernel) {
+                    return (LinearKernel) kernel;
+                }
+            } catch (Exception e) {
+                // Not available; fall back on the scalar loop.
+            } catch (LinkageError e) {
+                // Compiled for a newer platform or missing a module.
+            }
+        }
+        return SCALAR;
+    }
+
+    /**
+     * Stores {@code src[srcOff + i] * scale + offset} in {@code dst[dstOff + i]} for all
+     * {@code i} from 0 inclusive to {@code length} exclusive. The offset is omitted when
+     * zero, so a pure multiplication gives the same result than a {@code MultiplyConverter}.
+     * Callers have already verified the ranges; the arrays may be the same and overlap.
+     */
+    public abstract void apply(double[] src, int srcOff, double[] dst, int dstOff, int length,
+            double scale, double offset);
+
+    /**
+     * Same as {@link #apply(double[], int, double[], int, int, double, double)} for {@code float}
+     * values, computed in {@code double} precision before being rounded to {@code float}.
+     */
+    public abstract void apply(float[] src, int srcOff, float[] dst, int dstOff, int length,
+            double scale, double offset);
+
+    /**
+     * The scalar kernel, used when no other kernel is available.
+     */
+    private static final class Scalar extends LinearKernel {
+        Scalar() {
+        }
+
+        @Override
+        public void apply(double[] src, int srcOff, double[] dst, int dstOff, int length,
+                double scale, double offset)
+        {
+            final boolean backward = TestConverter.isBackward(src, srcOff, dst, dstOff);
+            if (offset == 0.0) {
+                if (backward) {
+                    for (int i = length; --i >= 0;) {
+                        dst[dstOff + i] = src[srcOff + i] * scale;
+                    }
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        dst[dstOff + i] = src[srcOff + i] * scale;
+                    }
+                }
+            } else {
+                if (backward) {
+                    for (int i = length; --i >= 0;) {
+                        dst[dstOff + i] = src[srcOff + i] * scale + offset;
+                    }
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        dst[dstOff + i] = src[srcOff + i] * scale + offset;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void apply(float[] src, int srcOff, float[] dst, int dstOff, int length,
+                double scale, double offset)
+        {
+            final boolean backward = TestConverter.isBackward(src, srcOff, dst, dstOff);
+            if (offset == 0.0) {
+                if (backward) {
+                    for (int i = length; --i >= 0;) {
+                        dst[dstOff + i] = (float) (src[srcOff + i] * scale);
+                    }
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        dst[dstOff + i] = (float) (src[srcOff + i] * scale);
+                    }
+                }
+            } else {
+                if (backward) {
+                    for (int i = length; --i >= 0;) {
+                        dst[dstOff + i] = (float) (src[srcOff + i] * scale + offset);
+                    }
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        dst[dstOff + i] = (float) (src[srcOff + i] * scale + offset);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A kernel unrolling the forward loops by four elements, for compilers which do not
+     * vectorize the scalar loops. Each group of four source values is read before any
+     * is written, and backward copies between overlapping ranges use the scalar loops.
+     */
+    public static final class Unrolled extends LinearKernel {
+        /**
+         * Creates the kernel. Invoked by reflection when named by {@value #KERNEL_PROPERTY}.
+         */
+        public Unrolled() {
+        }
+
+        @Override
+        public void apply(double[] src, int srcOff, double[] dst, int dstOff, int length,
+                double scale, double offset)
+        {
+            if (TestConverter.isBackward(src, srcOff, dst, dstOff)) {
+                SCALAR.apply(src, srcOff, dst, dstOff, length, scale, offset);
+                return;
+            }
+            int i = 0;
+            if (offset == 0.0) {
+                for (; i <= length - 4; i += 4) {
+                    final double x0 = src[srcOff + i];
+                    final double x1 = src[srcOff + i + 1];
+                    final double x2 = src[srcOff + i + 2];
+                    final double x3 = src[srcOff + i + 3];
+                    dst[dstOff + i]     = x0 * scale;
+                    dst[dstOff + i + 1] = x1 * scale;
+                    dst[dstOff + i + 2] = x2 * scale;
+                    dst[dstOff + i + 3] = x3 * scale;
+                }
+                for (; i < length; i++) {
+                    dst[dstOff + i] = src[srcOff + i] * scale;
+                }
+            } else {
+                for (; i <= length - 4; i += 4) {
+                    final double x0 = src[srcOff + i];
+                    final double x1 = src[srcOff + i + 1];
+                    final double x2 = src[srcOff + i + 2];
+                    final double x3 = src[srcOff + i + 3];
+                    dst[dstOff + i]     = x0 * scale + offset;
+                    dst[dstOff + i + 1] = x1 * scale + offset;
+                    dst[dstOff + i + 2] = x2 * scale + offset;
+                    dst[dstOff + i + 3] = x3 * scale + offset;
+                }
+                for (; i < length; i++) {
+                    dst[dstOff + i] = src[srcOff + i] * scale + offset;
+                }
+            }
+        }
+
+        @Override
+        public void apply(float[] src, int srcOff, float[] dst, int dstOff, int length,
+                double scale, double offset)
+        {
+            if (TestConverter.isBackward(src, srcOff, dst, dstOff)) {
+                SCALAR.apply(src, srcOff, dst, dstOff, length, scale, offset);
+                return;
+            }
+            int i = 0;
+            if (offset == 0.0) {
+                for (; i <= length - 4; i += 4) {
+                    final double x0 = src[srcOff + i];
+                    final double x1 = src[srcOff + i + 1];
+                    final double x2 = src[srcOff + i + 2];
+                    final double x3 = src[srcOff + i + 3];
+                    dst[dstOff + i]     = (float) (x0 * scale);
+                    dst[dstOff + i + 1] = (float) (x1 * scale);
+                    dst[dstOff + i + 2] = (float) (x2 * scale);
+                    dst[dstOff + i + 3] = (float) (x3 * scale);
+                }
+                for (; i < length; i++) {
+                    dst[dstOff + i] = (float) (src[srcOff + i] * scale);
+                }
+            } else {
+                for (; i <= length - 4; i += 4) {
+                    final double x0 = src[srcOff + i];
+                    final double x1 = src[srcOff + i + 1];
+                    final double x2 = src[srcOff + i + 2];
+                    final double x3 = src[srcOff + i + 3];
+                    dst[dstOff + i]     = (float) (x0 * scale + offset);
+                    dst[dstOff + i + 1] = (float) (x1 * scale + offset);
+                    dst[dstOff + i + 2] = (float) (x2 * scale + offset);
+                    dst[dstOff + i + 3] = (float) (x3 * scale + offset);
+                }
+                for (; i < length; i++) {
+                    dst[dstOff + i] = (float) (src[srcOff + i] * scale + offset);
+                }
+            }
+        }
+    }
+}
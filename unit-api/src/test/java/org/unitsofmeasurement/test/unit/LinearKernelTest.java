@@ -0,0 +1,66 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+
+public class LinearKernelTest {
+    private static final LinearKernel SCALAR = LinearKernel.load(null);
+
+    @Test
+    public void testLoad() {
+        assertTrue(LinearKernel.load(LinearKernel.Unrolled.class.getName()) instanceof LinearKernel.Unrolled);
+    }
+
+    @Test
+    public void testLoadFallback() {
+        assertSame(SCALAR, LinearKernel.load("org.unitsofmeasurement.test.unit.NoSuchKernel")); //$NON-NLS-1$
+        assertSame(SCALAR, LinearKernel.load(String.class.getName()));
+        assertSame(SCALAR, LinearKernel.load(LinearKernel.class.getName()));
+    }
+
+    @Test
+    public void testUnrolledMatchesScalar() {
+        final LinearKernel unrolled = new LinearKernel.Unrolled();
+        final double[] src = new double[11];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = i * 0.7 - 3;
+        }
+        final double[] expected = new double[src.length];
+        final double[] actual = new double[src.length];
+        SCALAR.apply(src, 1, expected, 0, 10, 1.8, 32);
+        unrolled.apply(src, 1, actual, 0, 10, 1.8, 32);
+        assertArrayEquals(expected, actual, 0);
+        SCALAR.apply(src, 0, expected, 1, 10, 1000, 0);
+        unrolled.apply(src, 0, actual, 1, 10, 1000, 0);
+        assertArrayEquals(expected, actual, 0);
+
+        final float[] fsrc = {1, 2, 3, 4, 5, 6, 7};
+        final float[] fexpected = new float[fsrc.length];
+        final float[] factual = new float[fsrc.length];
+        SCALAR.apply(fsrc, 0, fexpected, 0, 7, 0.3048, 0);
+        unrolled.apply(fsrc, 0, factual, 0, 7, 0.3048, 0);
+        assertArrayEquals(fexpected, factual, 0);
+    }
+
+    @Test
+    public void testUnrolledOverlapping() {
+        final LinearKernel unrolled = new LinearKernel.Unrolled();
+        final double[] forward = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        unrolled.apply(forward, 1, forward, 0, 8, 2, 0);
+        assertArrayEquals(new double[] {4, 6, 8, 10, 12, 14, 16, 18, 9}, forward, 0);
+        final double[] backward = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        unrolled.apply(backward, 0, backward, 1, 8, 2, 1);
+        assertArrayEquals(new double[] {1, 3, 5, 7, 9, 11, 13, 15, 17}, backward, 0);
+    }
+}
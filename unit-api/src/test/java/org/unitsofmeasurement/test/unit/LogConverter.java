@@ -0,0 +1,66 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * A logarithmic converter, for example to decibels.
+ * The inverse of this converter is an {@link ExpConverter} of same base.
+ *
+ * @version 1.0
+ */
+public class LogConverter extends TestConverter {
+    private final double base;
+    private final double logOfBase;
+
+    public LogConverter(double base) {
+        this.base = base;
+        this.logOfBase = Math.log(base);
+    }
+
+    public double getBase() {
+        return base;
+    }
+
+    @Override
+    public boolean isLinear() {
+        return false;
+    }
+
+    @Override
+    public UnitConverter inverse() {
+        return new ExpConverter(base);
+    }
+
+    @Override
+    public double convert(double value) {
+        return Math.log(value) / logOfBase;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof LogConverter))
+            return false;
+        return Double.doubleToLongBits(base) == Double.doubleToLongBits(((LogConverter) obj).base);
+    }
+
+    @Override
+    public int hashCode() {
+        final long bits = Double.doubleToLongBits(base);
+        return (int) (bits ^ (bits >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "LogConverter(" + base + ')';
+    }
+}
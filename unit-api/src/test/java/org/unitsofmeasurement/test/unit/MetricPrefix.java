@@ -0,0 +1,70 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import org.unitsofmeasurement.quantity.Quantity;
+import org.unitsofmeasurement.unit.Unit;
+
+
+/**
+ * The SI prefixes, from yocto (10^-24) to yotta (10^24). Each prefix holds a shared,
+ * immutable {@link PowerOfTenConverter}, so prefixed units never allocate a converter.
+ *
+ * [code]
+ *     Unit<Length> km = MetricPrefix.KILO.prefix(DistanceUnit.m);
+ * [/code]
+ *
+ * @version 1.0
+ */
+public enum MetricPrefix {
+    YOCTO("y", -24), ZEPTO("z", -21), ATTO("a", -18), FEMTO("f", -15), PICO("p", -12), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+    NANO("n", -9), MICRO("\u00B5", -6), MILLI("m", -3), CENTI("c", -2), DECI("d", -1), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+    DEKA("da", 1), HECTO("h", 2), KILO("k", 3), MEGA("M", 6), GIGA("G", 9), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+    TERA("T", 12), PETA("P", 15), EXA("E", 18), ZETTA("Z", 21), YOTTA("Y", 24); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+    private final String symbol;
+    private final PowerOfTenConverter converter;
+
+    private MetricPrefix(String symbol, int exponent) {
+        this.symbol = symbol;
+        this.converter = PowerOfTenConverter.valueOf(exponent);
+    }
+
+    /**
+     * Returns the symbol of this prefix, for example "k" for kilo.
+     *
+     * @return the prefix symbol.
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Returns the shared converter from a prefixed unit to the unprefixed unit.
+     *
+     * @return the power of ten converter of this prefix.
+     */
+    public PowerOfTenConverter getConverter() {
+        return converter;
+    }
+
+    /**
+     * Returns the given unit with this prefix.
+     *
+     * @param <Q> the type of the quantity measured by the unit.
+     * @param unit the unit to prefix.
+     * @return the prefixed unit.
+     */
+    public <Q extends Quantity<Q>> Unit<Q> prefix(Unit<Q> unit) {
+        if (unit instanceof TestUnit<?>) {
+            final String base = unit.getSymbol();
+            return new TransformedUnit<Q>((base != null) ? symbol + base : null, (TestUnit<Q>) unit, converter);
+        }
+        return unit.transform(converter);
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * A linear converter multiplying numeric values by a constant scale factor.
+ * The bulk conversion methods delegate to the {@link LinearKernel}, where the
+ * loop body is a single multiplication.
+ *
+ * @version 1.0
+ */
+public class MultiplyConverter extends TestConverter {
+    /**
+     * The identity converter.
+     */
+    public static final MultiplyConverter IDENTITY = new MultiplyConverter(1.0);
+
+    private final double factor;
+
+    /**
+     * Powers of ten for the SI prefixes, from 1E-24 to 1E+24, as parsed from their decimal
+     * representation. Used for recognizing prefix factors without rounding differences.
+     */
+    private static final double[] POWERS_OF_TEN = new double[49];
+    static {
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = Double.parseDouble("1E" + (i - 24)); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Returns a converter multiplying by the given factor. If the factor is an exact power of
+     * two whose inverse is also a normal {@code double}, or the power of ten of an SI prefix,
+     * the shared {@link PowerOfTwoConverter} or {@link PowerOfTenConverter} is returned
+     * instead of a new instance.
+     *
+     * @param factor the scale factor.
+     * @return a converter multiplying by the given factor.
+     */
+    public static TestConverter valueOf(double factor) {
+        if (factor == 1.0) {
+            return IDENTITY;
+        }
+        final long bits = Double.doubleToRawLongBits(factor);
+        final int biased = (int) (bits >>> 52) & 0x7FF;
+        if ((bits & 0x000FFFFFFFFFFFFFL) == 0 && factor > 0
+                && Math.abs(biased - 1023) <= PowerOfTwoConverter.MAX_EXPONENT)
+        {
+            return PowerOfTwoConverter.valueOf(biased - 1023);
+        }
+        if (factor > 0) {
+            final int i = (int) Math.round(Math.log10(factor)) + 24;
+            if (i >= 0 && i < POWERS_OF_TEN.length && POWERS_OF_TEN[i] == factor) {
+                return PowerOfTenConverter.valueOf(i - 24);
+            }
+        }
+        return new MultiplyConverter(factor);
+    }
+
+    public MultiplyConverter(double factor) {
+        this.factor = factor;
+    }
+
+    public double getFactor() {
+        return factor;
+    }
+
+    @Override
+    boolean isAffine() {
+        return true;
+    }
+
+    @Override
+    double getScale() {
+        return factor;
+    }
+
+    @Override
+    double getOffset() {
+        return 0;
+    }
+
+    @Override
+    public boolean isIdentity() {
+        return factor == 1.0;
+    }
+
+    @Override
+    public boolean isLinear() {
+        return true;
+    }
+
+    @Override
+    public UnitConverter inverse() {
+        return valueOf(1.0 / factor);
+    }
+
+    @Override
+    public double convert(double value) {
+        return value * factor;
+    }
+
+    @Override
+    public BigDecimal convert(BigDecimal value, MathContext ctx) throws ArithmeticException {
+        return value.multiply(BigDecimal.valueOf(factor), ctx);
+    }
+
+    /**
+     * Multiplies or divides in integer arithmetic if the factor or its inverse is an integer,
+     * otherwise multiplies exactly by the decimal value of the factor.
+     */
+    @Override
+    public long convertExact(long value) throws ArithmeticException {
+        if (isLong(factor)) {
+            return multiplyExact(value, (long) factor);
+        }
+        final double inverse = 1.0 / factor;
+        if (isLong(inverse) && inverse * factor == 1.0) {
+            return divideExact(value, (long) inverse);
+        }
+        if (Double.isNaN(factor) || Double.isInfinite(factor)) {
+            throw new ArithmeticException("Non-finite factor: " + factor); //$NON-NLS-1$
+        }
+        return BigDecimal.valueOf(value).multiply(BigDecimal.valueOf(factor)).longValueExact();
+    }
+
+    /**
+     * Returns {@code true} if the given value is an integer in the range of {@code long}.
+     */
+    private static boolean isLong(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 9.223372036854775807E18;
+    }
+
+    @Override
+    public void convert(double[] src, int srcOff, double[] dst, int dstOff, int length) {
+        checkRange(src.length, srcOff, dst.length, dstOff, length);
+        LinearKernel.getInstance().apply(src, srcOff, dst, dstOff, length, factor, 0);
+    }
+
+    @Override
+    public void convert(float[] src, int srcOff, float[] dst, int dstOff, int length) {
+        checkRange(src.length, srcOff, dst.length, dstOff, length);
+        LinearKernel.getInstance().apply(src, srcOff, dst, dstOff, length, factor, 0);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof MultiplyConverter))
+            return false;
+        return Double.doubleToLongBits(factor) == Double.doubleToLongBits(((MultiplyConverter) obj).factor);
+    }
+
+    @Override
+    public int hashCode() {
+        final long bits = Double.doubleToLongBits(factor);
+        return (int) (bits ^ (bits >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "MultiplyConverter(" + factor + ')';
+    }
+}
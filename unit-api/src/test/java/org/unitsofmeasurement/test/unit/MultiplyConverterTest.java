@@ -0,0 +1,111 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+import org.junit.Test;
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+public class MultiplyConverterTest {
+    private final MultiplyConverter kmToM = new MultiplyConverter(1000);
+
+    @Test
+    public void testConvertArray() {
+        double[] src = {1, 2, 3, 4};
+        double[] dst = new double[6];
+        kmToM.convert(src, 1, dst, 2, 3);
+        assertArrayEquals(new double[] {0, 0, 2000, 3000, 4000, 0}, dst, 0);
+    }
+
+    @Test
+    public void testConvertFloatArray() {
+        float[] values = {1.5f, 2.5f};
+        kmToM.convert(values, 0, values, 0, values.length);
+        assertArrayEquals(new float[] {1500f, 2500f}, values, 0f);
+    }
+
+    @Test
+    public void testConvertOverlapping() {
+        double[] values = {1, 2, 3, 4, 0};
+        kmToM.convert(values, 0, values, 1, 4);
+        assertArrayEquals(new double[] {1, 1000, 2000, 3000, 4000}, values, 0);
+        kmToM.inverse().convert(values, 1, values, 0, 4);
+        assertArrayEquals(new double[] {1, 2, 3, 4, 4000}, values, 0);
+    }
+
+    @Test
+    public void testConvertExact() {
+        assertEquals(9007199254740993000L, kmToM.convertExact(9007199254740993L));
+        assertEquals(42L, kmToM.inverse().convertExact(42000L));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testConvertExactOverflow() {
+        kmToM.convertExact(Long.MAX_VALUE / 10);
+    }
+
+    @Test
+    public void testConvertExactDecimalFactor() {
+        assertEquals(9007199254740993L, new MultiplyConverter(0.5).convertExact(18014398509481986L));
+        assertEquals(25L, new MultiplyConverter(2.5).convertExact(10L));
+        assertEquals(9007199254740995L, new AddConverter(2).convertExact(9007199254740993L));
+    }
+
+    @Test
+    public void testConvertExactStages() {
+        assertEquals(254L, DistanceUnit.in.getConverterTo(DistanceUnit.cm).convertExact(100));
+        assertEquals(15L, new MultiplyConverter(10).concatenate(new MultiplyConverter(0.5)).convertExact(3));
+        assertEquals(15L, new CompoundConverter(new MultiplyConverter(10), new MultiplyConverter(0.5)).convertExact(3));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testConvertExactInexact() {
+        new MultiplyConverter(2.5).convertExact(9007199254740993L);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testConvertExactNonLinear() {
+        new LogConverter(10).convertExact(0);
+    }
+
+    @Test
+    public void testConvertDirectBuffer() {
+        DoubleBuffer buffer = ByteBuffer.allocateDirect(1000 * 8).asDoubleBuffer();
+        for (int i = 0; i < 1000; i++) {
+            buffer.put(i, i);
+        }
+        kmToM.convert(buffer, buffer.duplicate());
+        assertEquals(1000, buffer.position());
+        assertEquals(999000, buffer.get(999), 0);
+        DoubleBuffer heap = DoubleBuffer.allocate(2);
+        buffer.position(1);
+        kmToM.inverse().convert((DoubleBuffer) buffer.limit(3), heap);
+        assertEquals(1, heap.get(0), 0);
+        assertEquals(2, heap.get(1), 0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testConvertOutOfBounds() {
+        kmToM.convert(new double[3], 1, new double[3], 0, 3);
+    }
+
+    @Test
+    public void testCompoundConvertArray() {
+        UnitConverter c = new MultiplyConverter(2).concatenate(kmToM);
+        double[] values = {1, 2};
+        c.convert(values, 0, values, 0, 2);
+        assertArrayEquals(new double[] {2000, 4000}, values, 0);
+        assertEquals(2, c.getCompoundConverters().size());
+    }
+}
@@ -0,0 +1,246 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.unitsofmeasurement.unit.Dimension;
+
+
+/**
+ * A dimension encoded as small signed exponents packed in a single {@code long}.
+ * The seven SI base dimensions (L, M, T, I, &Theta;, N, J) occupy the first slots, followed by
+ * {@linkplain #EXTENSION_SLOTS extension slots} for non-SI base dimensions such as
+ * {@linkplain #INFORMATION information}. Each slot is a {@value #FIELD_BITS}-bit two's
+ * complement field, so exponents range from {@value #MIN_EXPONENT} to {@value #MAX_EXPONENT}.
+ *
+ * <p>{@link #multiply(Dimension)} and {@link #divide(Dimension)} add or subtract all fields
+ * at once in plain {@code long} arithmetic, and {@link #equals(Object)} is a single
+ * {@code long} comparison. Operations whose result would not fit in a field throw
+ * {@link ArithmeticException}.</p>
+ *
+ * @version 1.0
+ */
+public final class PackedDimension implements Dimension {
+    /**
+     * Number of bits of each exponent field.
+     */
+    public static final int FIELD_BITS = 6;
+
+    /**
+     * The smallest exponent a field can hold.
+     */
+    public static final int MIN_EXPONENT = -(1 << (FIELD_BITS - 1));
+
+    /**
+     * The largest exponent a field can hold.
+     */
+    public static final int MAX_EXPONENT = (1 << (FIELD_BITS - 1)) - 1;
+
+    /**
+     * Number of SI base dimensions, which occupy the first slots.
+     */
+    public static final int SI_SLOTS = 7;
+
+    /**
+     * Number of slots available after the SI base dimensions.
+     */
+    public static final int EXTENSION_SLOTS = Long.SIZE / FIELD_BITS - SI_SLOTS;
+
+    private static final int SLOTS = SI_SLOTS + EXTENSION_SLOTS;
+
+    /**
+     * The sign bit of every field.
+     */
+    private static final long SIGNS;
+
+    /**
+     * All bits used by the fields.
+     */
+    private static final long MASK;
+    static {
+        long signs = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            signs |= 1L << (i * FIELD_BITS + FIELD_BITS - 1);
+        }
+        SIGNS = signs;
+        MASK = (1L << (SLOTS * FIELD_BITS)) - 1;
+    }
+
+    private static final String[] SYMBOLS = {"L", "M", "T", "I", "\u0398", "N", "J", "B"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+
+    public static final PackedDimension NONE = new PackedDimension(0);
+    public static final PackedDimension LENGTH = base(0);
+    public static final PackedDimension MASS = base(1);
+    public static final PackedDimension TIME = base(2);
+    public static final PackedDimension ELECTRIC_CURRENT = base(3);
+    public static final PackedDimension TEMPERATURE = base(4);
+    public static final PackedDimension AMOUNT_OF_SUBSTANCE = base(5);
+    public static final PackedDimension LUMINOUS_INTENSITY = base(6);
+
+    /**
+     * Information, stored in the first extension slot.
+     */
+    public static final PackedDimension INFORMATION = base(SI_SLOTS);
+
+    private final long bits;
+
+    private PackedDimension(long bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Returns the base dimension stored in the given slot.
+     *
+     * @param slot the slot index, from 0 inclusive to {@code SI_SLOTS + EXTENSION_SLOTS} exclusive.
+     * @return the base dimension of the given slot.
+     * @throws IndexOutOfBoundsException if the slot is out of range.
+     */
+    public static PackedDimension base(int slot) {
+        if (slot < 0 || slot >= SLOTS) {
+            throw new IndexOutOfBoundsException("Slot " + slot); //$NON-NLS-1$
+        }
+        return new PackedDimension(1L << (slot * FIELD_BITS));
+    }
+
+    /**
+     * Returns the dimension having the given packed representation.
+     *
+     * @param bits the packed exponents, as returned by {@link #bits()}.
+     * @return the dimension for the given bits.
+     * @throws IllegalArgumentException if bits outside the fields are set.
+     */
+    public static PackedDimension valueOf(long bits) {
+        if ((bits & ~MASK) != 0) {
+            throw new IllegalArgumentException("Unused bits set: " + Long.toHexString(bits)); //$NON-NLS-1$
+        }
+        return (bits == 0) ? NONE : new PackedDimension(bits);
+    }
+
+    /**
+     * Returns the packed exponents of this dimension.
+     *
+     * @return the packed exponents.
+     */
+    public long bits() {
+        return bits;
+    }
+
+    /**
+     * Returns the exponent of the base dimension in the given slot.
+     *
+     * @param slot the slot index.
+     * @return the exponent in the given slot.
+     */
+    public int getExponent(int slot) {
+        if (slot < 0 || slot >= SLOTS) {
+            throw new IndexOutOfBoundsException("Slot " + slot); //$NON-NLS-1$
+        }
+        return (int) (bits << (Long.SIZE - (slot + 1) * FIELD_BITS) >> (Long.SIZE - FIELD_BITS));
+    }
+
+    /**
+     * Returns the packed representation of the given dimension.
+     */
+    private static long bitsOf(Dimension dimension) {
+        if (dimension instanceof PackedDimension) {
+            return ((PackedDimension) dimension).bits;
+        }
+        throw new IllegalArgumentException("Unsupported dimension: " + dimension); //$NON-NLS-1$
+    }
+
+    public Dimension multiply(Dimension that) {
+        final long b = bitsOf(that);
+        final long sum = ((bits & ~SIGNS) + (b & ~SIGNS)) ^ ((bits ^ b) & SIGNS);
+        if ((~(bits ^ b) & (bits ^ sum) & SIGNS) != 0) {
+            throw new ArithmeticException("Exponent overflow in " + this + " * " + that); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return valueOf(sum);
+    }
+
+    public Dimension divide(Dimension that) {
+        final long b = bitsOf(that);
+        final long diff = ((bits | SIGNS) - (b & ~SIGNS)) ^ ((bits ^ ~b) & SIGNS);
+        if (((bits ^ b) & (bits ^ diff) & SIGNS) != 0) {
+            throw new ArithmeticException("Exponent overflow in " + this + " / " + that); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return valueOf(diff);
+    }
+
+    public Dimension pow(int n) {
+        long result = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            final long e = (long) getExponent(i) * n;
+            if (e < MIN_EXPONENT || e > MAX_EXPONENT) {
+                throw new ArithmeticException("Exponent overflow in " + this + "^" + n); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            result |= (e & ((1L << FIELD_BITS) - 1)) << (i * FIELD_BITS);
+        }
+        return valueOf(result);
+    }
+
+    public Dimension root(int n) {
+        if (n == 0) {
+            throw new ArithmeticException("Root of order zero"); //$NON-NLS-1$
+        }
+        long result = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            final int e = getExponent(i);
+            if (e % n != 0 || (n == -1 && e == MIN_EXPONENT)) {
+                throw new ArithmeticException("Fractional or overflowing exponent in root " + n + " of " + this); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            result |= ((long) (e / n) & ((1L << FIELD_BITS) - 1)) << (i * FIELD_BITS);
+        }
+        return valueOf(result);
+    }
+
+    public Map<PackedDimension, Integer> getProductDimensions() {
+        final Map<PackedDimension, Integer> map = new LinkedHashMap<PackedDimension, Integer>();
+        for (int i = 0; i < SLOTS; i++) {
+            final int e = getExponent(i);
+            if (e != 0) {
+                map.put(base(i), e);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        return (obj instanceof PackedDimension) && bits == ((PackedDimension) obj).bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (bits ^ (bits >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        if (bits == 0) {
+            return "1"; //$NON-NLS-1$
+        }
+        final StringBuilder buffer = new StringBuilder();
+        for (int i = 0; i < SLOTS; i++) {
+            final int e = getExponent(i);
+            if (e != 0) {
+                if (buffer.length() != 0) {
+                    buffer.append('\u00B7');
+                }
+                buffer.append('[').append(i < SYMBOLS.length ? SYMBOLS[i] : "X" + i).append(']'); //$NON-NLS-1$
+                if (e != 1) {
+                    buffer.append('^').append(e);
+                }
+            }
+        }
+        return buffer.toString();
+    }
+}
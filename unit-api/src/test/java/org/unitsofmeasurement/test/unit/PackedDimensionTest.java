@@ -0,0 +1,68 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.unitsofmeasurement.unit.Dimension;
+
+
+public class PackedDimensionTest {
+    private static final int SLOTS = PackedDimension.SI_SLOTS + PackedDimension.EXTENSION_SLOTS;
+
+    private static PackedDimension random(Random random) {
+        Dimension d = PackedDimension.NONE;
+        for (int i = 0; i < SLOTS; i++) {
+            d = d.multiply(PackedDimension.base(i).pow(random.nextInt(31) - 15));
+        }
+        return (PackedDimension) d;
+    }
+
+    @Test
+    public void testMultiplyDivide() {
+        final Random random = new Random(42);
+        for (int n = 0; n < 1000; n++) {
+            PackedDimension a = random(random);
+            PackedDimension b = random(random);
+            PackedDimension product = (PackedDimension) a.multiply(b);
+            PackedDimension quotient = (PackedDimension) a.divide(b);
+            for (int i = 0; i < SLOTS; i++) {
+                assertEquals(a.getExponent(i) + b.getExponent(i), product.getExponent(i));
+                assertEquals(a.getExponent(i) - b.getExponent(i), quotient.getExponent(i));
+            }
+            assertEquals(a, quotient.multiply(b));
+        }
+    }
+
+    @Test
+    public void testPowRoot() {
+        Dimension speed = PackedDimension.LENGTH.divide(PackedDimension.TIME);
+        assertEquals(speed, speed.pow(3).root(3));
+        assertEquals(PackedDimension.NONE, speed.pow(0));
+        assertEquals(2, speed.pow(-2).getProductDimensions().size());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testOverflow() {
+        PackedDimension.LENGTH.pow(PackedDimension.MAX_EXPONENT).multiply(PackedDimension.LENGTH);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testFractionalRoot() {
+        PackedDimension.LENGTH.root(2);
+    }
+
+    @Test
+    public void testUnitDimension() {
+        assertEquals(PackedDimension.LENGTH.pow(2), AreaUnit.acre.getDimension());
+        assertEquals(AreaUnit.acre.getDimension(), DistanceUnit.km.multiply(DistanceUnit.m).getDimension());
+    }
+}
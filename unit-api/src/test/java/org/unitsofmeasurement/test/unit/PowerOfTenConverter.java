@@ -0,0 +1,167 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * A linear converter multiplying numeric values by a power of ten, for example
+ * {@code 10^3} for kilometres to metres. {@code BigDecimal} values are converted
+ * by {@link BigDecimal#scaleByPowerOfTen(int)}, which is exact and only changes the
+ * scale of the number; the result is rounded once according to the {@code MathContext}.
+ *
+ * @version 1.0
+ */
+public class PowerOfTenConverter extends TestConverter {
+    private final int exponent;
+
+    /**
+     * {@code 10^|exponent|} as a {@code double}. Negative powers divide by this
+     * value, which is more accurate than multiplying by the inexact {@code 10^exponent}.
+     */
+    private final double power;
+
+    /**
+     * Shared instances for the exponents of the SI prefixes, from yocto (-24) to yotta (24).
+     */
+    private static final PowerOfTenConverter[] SHARED = new PowerOfTenConverter[49];
+    static {
+        for (int i = 0; i < SHARED.length; i++) {
+            SHARED[i] = new PowerOfTenConverter(i - 24);
+        }
+    }
+
+    /**
+     * Returns a converter for the given power of ten, shared if within the range of SI prefixes.
+     *
+     * @param exponent the power of ten.
+     * @return a converter multiplying by {@code 10^exponent}.
+     */
+    public static PowerOfTenConverter valueOf(int exponent) {
+        final int i = exponent + 24;
+        return (i >= 0 && i < SHARED.length) ? SHARED[i] : new PowerOfTenConverter(exponent);
+    }
+
+    public PowerOfTenConverter(int exponent) {
+        this.exponent = exponent;
+        this.power = Math.pow(10, Math.abs(exponent));
+    }
+
+    public int getExponent() {
+        return exponent;
+    }
+
+    /**
+     * Returns this converter as an exact ratio of integers.
+     */
+    RationalConverter toRational() {
+        final BigInteger p = BigInteger.TEN.pow(Math.abs(exponent));
+        return (exponent >= 0) ? new RationalConverter(p, BigInteger.ONE) : new RationalConverter(BigInteger.ONE, p);
+    }
+
+    @Override
+    boolean isAffine() {
+        return true;
+    }
+
+    @Override
+    double getScale() {
+        return (exponent >= 0) ? power : 1 / power;
+    }
+
+    @Override
+    double getOffset() {
+        return 0;
+    }
+
+    @Override
+    public boolean isIdentity() {
+        return exponent == 0;
+    }
+
+    @Override
+    public boolean isLinear() {
+        return true;
+    }
+
+    @Override
+    public UnitConverter inverse() {
+        return valueOf(-exponent);
+    }
+
+    @Override
+    public double convert(double value) {
+        return (exponent >= 0) ? value * power : value / power;
+    }
+
+    @Override
+    public long convertExact(long value) throws ArithmeticException {
+        if (value == 0 || exponent == 0) {
+            return value;
+        }
+        final int n = Math.abs(exponent);
+        if (n > 18) {
+            throw new ArithmeticException("Not representable as a long: " + value + "E" + exponent); //$NON-NLS-1$
+        }
+        long p = 1;
+        for (int i = 0; i < n; i++) {
+            p *= 10;
+        }
+        return (exponent > 0) ? multiplyExact(value, p) : divideExact(value, p);
+    }
+
+    @Override
+    public BigDecimal convert(BigDecimal value, MathContext ctx) throws ArithmeticException {
+        return value.scaleByPowerOfTen(exponent).round(ctx);
+    }
+
+    @Override
+    public void convert(double[] src, int srcOff, double[] dst, int dstOff, int length) {
+        if (exponent >= 0) {
+            checkRange(src.length, srcOff, dst.length, dstOff, length);
+            LinearKernel.getInstance().apply(src, srcOff, dst, dstOff, length, power, 0);
+        } else {
+            super.convert(src, srcOff, dst, dstOff, length);
+        }
+    }
+
+    /**
+     * Concatenates exactly with other power of ten, power of two or rational converters.
+     */
+    @Override
+    public UnitConverter concatenate(UnitConverter converter) {
+        if (converter instanceof PowerOfTenConverter) {
+            final int sum = exponent + ((PowerOfTenConverter) converter).exponent;
+            return (sum == 0) ? MultiplyConverter.IDENTITY : valueOf(sum);
+        }
+        if (RationalConverter.asRational(converter) != null) {
+            return toRational().concatenate(converter);
+        }
+        return super.concatenate(converter);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return (obj instanceof PowerOfTenConverter) && ((PowerOfTenConverter) obj).exponent == exponent;
+    }
+
+    @Override
+    public int hashCode() {
+        return exponent;
+    }
+
+    @Override
+    public String toString() {
+        return "PowerOfTenConverter(" + exponent + ')';
+    }
+}
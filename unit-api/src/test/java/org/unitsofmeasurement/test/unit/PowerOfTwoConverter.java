@@ -0,0 +1,188 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * A linear converter multiplying numeric values by a power of two, for example
+ * {@code 2^10} for kibibytes to bytes. Multiplying a {@code double} by a power of two is
+ * exact (barring overflow or underflow), and {@code long} values are converted by shifts.
+ *
+ * @version 1.0
+ */
+public class PowerOfTwoConverter extends TestConverter {
+    /**
+     * The largest exponent for which {@code 2^exponent} and {@code 2^-exponent} are normal doubles.
+     */
+    static final int MAX_EXPONENT = 1022;
+
+    /**
+     * Shared instances for the exponents of the binary prefixes, from 2^-80 to 2^80.
+     */
+    private static final PowerOfTwoConverter[] SHARED = new PowerOfTwoConverter[161];
+    static {
+        for (int i = 0; i < SHARED.length; i++) {
+            SHARED[i] = new PowerOfTwoConverter(i - 80);
+        }
+    }
+
+    private final int exponent;
+
+    /**
+     * {@code 2^exponent}, which is exact as a {@code double}.
+     */
+    private final double factor;
+
+    /**
+     * Returns a converter for the given power of two, shared if within the range of binary prefixes.
+     *
+     * @param exponent the power of two.
+     * @return a converter multiplying by {@code 2^exponent}.
+     */
+    public static PowerOfTwoConverter valueOf(int exponent) {
+        final int i = exponent + 80;
+        return (i >= 0 && i < SHARED.length) ? SHARED[i] : new PowerOfTwoConverter(exponent);
+    }
+
+    public PowerOfTwoConverter(int exponent) {
+        if (Math.abs(exponent) > MAX_EXPONENT) {
+            throw new IllegalArgumentException("Exponent out of range: " + exponent); //$NON-NLS-1$
+        }
+        this.exponent = exponent;
+        this.factor = Double.longBitsToDouble((long) (exponent + 1023) << 52);
+    }
+
+    public int getExponent() {
+        return exponent;
+    }
+
+    /**
+     * Returns this converter as an exact ratio of integers.
+     */
+    RationalConverter toRational() {
+        final BigInteger p = BigInteger.ONE.shiftLeft(Math.abs(exponent));
+        return (exponent >= 0) ? new RationalConverter(p, BigInteger.ONE) : new RationalConverter(BigInteger.ONE, p);
+    }
+
+    @Override
+    boolean isAffine() {
+        return true;
+    }
+
+    @Override
+    double getScale() {
+        return factor;
+    }
+
+    @Override
+    double getOffset() {
+        return 0;
+    }
+
+    @Override
+    public boolean isIdentity() {
+        return exponent == 0;
+    }
+
+    @Override
+    public boolean isLinear() {
+        return true;
+    }
+
+    @Override
+    public UnitConverter inverse() {
+        return valueOf(-exponent);
+    }
+
+    @Override
+    public double convert(double value) {
+        return value * factor;
+    }
+
+    /**
+     * Shifts the value, throwing if bits would be lost.
+     */
+    @Override
+    public long convertExact(long value) throws ArithmeticException {
+        if (value == 0 || exponent == 0) {
+            return value;
+        }
+        if (exponent > 0) {
+            if (exponent < Long.SIZE - 1) {
+                final long result = value << exponent;
+                if ((result >> exponent) == value) {
+                    return result;
+                }
+            }
+            throw new ArithmeticException("Overflow: " + value + " * 2^" + exponent); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        final int n = -exponent;
+        if (n < Long.SIZE - 1 && (value & ((1L << n) - 1)) == 0) {
+            return value >> n;
+        }
+        throw new ArithmeticException("Not an integer: " + value + " / 2^" + n); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @Override
+    public BigDecimal convert(BigDecimal value, MathContext ctx) throws ArithmeticException {
+        return value.multiply(new BigDecimal(factor), ctx);
+    }
+
+    @Override
+    public void convert(double[] src, int srcOff, double[] dst, int dstOff, int length) {
+        checkRange(src.length, srcOff, dst.length, dstOff, length);
+        LinearKernel.getInstance().apply(src, srcOff, dst, dstOff, length, factor, 0);
+    }
+
+    @Override
+    public void convert(float[] src, int srcOff, float[] dst, int dstOff, int length) {
+        checkRange(src.length, srcOff, dst.length, dstOff, length);
+        LinearKernel.getInstance().apply(src, srcOff, dst, dstOff, length, factor, 0);
+    }
+
+    /**
+     * Concatenates exactly with other power of two, power of ten or rational converters.
+     */
+    @Override
+    public UnitConverter concatenate(UnitConverter converter) {
+        if (converter instanceof PowerOfTwoConverter) {
+            final int sum = exponent + ((PowerOfTwoConverter) converter).exponent;
+            if (sum == 0) {
+                return MultiplyConverter.IDENTITY;
+            }
+            if (Math.abs(sum) <= MAX_EXPONENT) {
+                return valueOf(sum);
+            }
+        }
+        if (RationalConverter.asRational(converter) != null) {
+            return toRational().concatenate(converter);
+        }
+        return super.concatenate(converter);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return (obj instanceof PowerOfTwoConverter) && ((PowerOfTwoConverter) obj).exponent == exponent;
+    }
+
+    @Override
+    public int hashCode() {
+        return exponent;
+    }
+
+    @Override
+    public String toString() {
+        return "PowerOfTwoConverter(" + exponent + ')';
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.unitsofmeasurement.quantity.Information;
+import org.unitsofmeasurement.quantity.Length;
+import org.unitsofmeasurement.unit.Unit;
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+public class PowerOfTwoConverterTest {
+
+    @Test
+    public void testConvertExact() {
+        UnitConverter kibi = BinaryPrefix.KIBI.getConverter();
+        assertEquals(3072L, kibi.convertExact(3));
+        assertEquals(3L, kibi.inverse().convertExact(3072));
+        assertEquals(-2048L, kibi.convertExact(-2));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testInexactShift() {
+        BinaryPrefix.KIBI.getConverter().inverse().convertExact(1025);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testOverflow() {
+        BinaryPrefix.EXBI.getConverter().convertExact(1L << 4);
+    }
+
+    @Test
+    public void testSharedConverters() {
+        assertSame(BinaryPrefix.MEBI.getConverter(), MultiplyConverter.valueOf(1048576));
+        assertSame(MetricPrefix.KILO.getConverter(), MultiplyConverter.valueOf(1000));
+        assertSame(MetricPrefix.MILLI.getConverter(), MultiplyConverter.valueOf(0.001));
+        assertSame(MetricPrefix.MILLI.getConverter(), MetricPrefix.KILO.getConverter().inverse());
+        assertSame(MultiplyConverter.IDENTITY, MultiplyConverter.valueOf(1));
+        assertEquals(MultiplyConverter.class, MultiplyConverter.valueOf(1609).getClass());
+    }
+
+    @Test
+    public void testExponentRange() {
+        assertEquals(MultiplyConverter.class, MultiplyConverter.valueOf(Math.scalb(1.0, 1023)).getClass());
+        assertEquals(MultiplyConverter.class, MultiplyConverter.valueOf(Math.scalb(1.0, -1023)).getClass());
+        assertEquals(PowerOfTwoConverter.valueOf(1022), MultiplyConverter.valueOf(Math.scalb(1.0, 1022)));
+        UnitConverter c = PowerOfTwoConverter.valueOf(1000).concatenate(PowerOfTwoConverter.valueOf(1000));
+        assertEquals(Double.POSITIVE_INFINITY, c.convert(1), 0);
+    }
+
+    @Test
+    public void testPrefixedUnits() {
+        Unit<Information> octet = BitUnit.bit.multiply(8);
+        Unit<Information> kibibyte = BinaryPrefix.KIBI.prefix(octet);
+        UnitConverter toBits = kibibyte.getConverterTo(BitUnit.bit);
+        assertSame(PowerOfTwoConverter.valueOf(13), toBits);
+        assertEquals(8192L * 5, toBits.convertExact(5));
+
+        Unit<Length> km = MetricPrefix.KILO.prefix(DistanceUnit.m);
+        assertEquals("km", km.getSymbol());
+        assertSame(MetricPrefix.KILO.getConverter(), km.getConverterTo(DistanceUnit.m));
+        assertSame(MultiplyConverter.IDENTITY, MetricPrefix.MILLI.prefix(km).getConverterTo(DistanceUnit.m));
+    }
+}
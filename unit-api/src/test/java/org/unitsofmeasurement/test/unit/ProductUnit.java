@@ -0,0 +1,431 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.unitsofmeasurement.quantity.Quantity;
+import org.unitsofmeasurement.unit.Dimension;
+import org.unitsofmeasurement.unit.Unit;
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * A unit made of the product of integer powers of other units, for example {@code m·s^-1}.
+ * Instances are created only by the static factory methods, which normalize the product
+ * (operands flattened, equal units merged, zero powers dropped) and intern the result:
+ * structurally equal products are the same instance, so {@code ==} is a valid fast path.
+ * Interned units are weakly referenced and can be garbage-collected when no longer used.
+ *
+ * <p>A product is stored as a vector: the {@linkplain UnitIds identifiers} of its element
+ * units in increasing order, and the exponent of each element. Multiplying, dividing and
+ * raising products are merges of these sorted arrays. The {@link #getProductUnits()} map
+ * is built only when first requested.</p>
+ *
+ * <p>The results of the factory methods are memoized in a bounded {@link AlgebraCache}, and
+ * each product computes its system unit and system converter once, so deriving the same
+ * unit repeatedly costs a cache lookup.</p>
+ *
+ * @param <Q> The type of the quantity measured by this unit.
+ *
+ * @version 1.2
+ */
+public final class ProductUnit<Q extends Quantity<Q>> extends TestUnit<Q> {
+    /**
+     * The interned products. Keys are weakly referenced by the map and values by the
+     * {@code WeakReference}, so an entry disappears when its unit is no longer used.
+     */
+    private static final Map<ProductUnit<?>, WeakReference<ProductUnit<?>>> INSTANCES =
+            new WeakHashMap<ProductUnit<?>, WeakReference<ProductUnit<?>>>();
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * The results of recent multiply, divide, pow and root operations. Results are
+     * interned units, so a cached result is also the instance the interning would return.
+     */
+    static final AlgebraCache RESULTS = new AlgebraCache(1024);
+
+    /**
+     * The identifiers of the element units in increasing order.
+     * Elements are never a {@code ProductUnit} or {@link #ONE}.
+     */
+    private final int[] ids;
+
+    /**
+     * The exponent of each element, never zero.
+     */
+    private final int[] exponents;
+
+    private final int hash;
+
+    /**
+     * The map view of this product, created when first requested.
+     */
+    private volatile Map<Unit<?>, Integer> productUnits;
+
+    /**
+     * The system unit and the converter to it, computed when first requested.
+     */
+    private volatile Unit<Q> systemUnit;
+    private volatile UnitConverter systemConverter;
+
+    /**
+     * The dimension, computed when first requested.
+     */
+    private volatile Dimension dimension;
+
+    private ProductUnit(int[] ids, int[] exponents) {
+        this.ids = ids;
+        this.exponents = exponents;
+        hash = Arrays.hashCode(ids) * 31 + Arrays.hashCode(exponents);
+    }
+
+    /**
+     * Returns the product of the given units.
+     *
+     * @param u1 the multiplicand.
+     * @param u2 the multiplier.
+     * @return {@code u1 * u2}
+     */
+    public static Unit<?> getProductInstance(Unit<?> u1, Unit<?> u2) {
+        Unit<?> result = RESULTS.get(AlgebraCache.MULTIPLY, u1, u2, 0);
+        if (result == null) {
+            result = getInstance(merge(vector(u1), vector(u2), 1));
+            result = RESULTS.put(AlgebraCache.MULTIPLY, u1, u2, 0, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the quotient of the given units.
+     *
+     * @param dividend the dividend.
+     * @param divisor the divisor.
+     * @return {@code dividend / divisor}
+     */
+    public static Unit<?> getQuotientInstance(Unit<?> dividend, Unit<?> divisor) {
+        Unit<?> result = RESULTS.get(AlgebraCache.DIVIDE, dividend, divisor, 0);
+        if (result == null) {
+            result = getInstance(merge(vector(dividend), vector(divisor), -1));
+            result = RESULTS.put(AlgebraCache.DIVIDE, dividend, divisor, 0, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the given unit raised to the given power.
+     *
+     * @param unit the unit to raise.
+     * @param n the exponent.
+     * @return {@code unit^n}
+     */
+    public static Unit<?> getPowInstance(Unit<?> unit, int n) {
+        if (n == 0) {
+            return ONE;
+        }
+        Unit<?> result = RESULTS.get(AlgebraCache.POW, unit, null, n);
+        if (result == null) {
+            final int[][] v = vector(unit);
+            final int[] exponents = new int[v[1].length];
+            for (int i = 0; i < exponents.length; i++) {
+                exponents[i] = v[1][i] * n;
+            }
+            result = getInstance(new int[][] {v[0], exponents});
+            result = RESULTS.put(AlgebraCache.POW, unit, null, n, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the n-th root of the given unit.
+     *
+     * @param unit the unit from which to take the root.
+     * @param n the root's order.
+     * @return {@code unit^(1/n)}
+     * @throws ArithmeticException if {@code n == 0} or if an exponent is not a multiple of {@code n}.
+     */
+    public static Unit<?> getRootInstance(Unit<?> unit, int n) {
+        if (n == 0) {
+            throw new ArithmeticException("Root of order zero"); //$NON-NLS-1$
+        }
+        Unit<?> result = RESULTS.get(AlgebraCache.ROOT, unit, null, n);
+        if (result == null) {
+            final int[][] v = vector(unit);
+            final int[] exponents = new int[v[1].length];
+            for (int i = 0; i < exponents.length; i++) {
+                if (v[1][i] % n != 0) {
+                    throw new ArithmeticException("Fractional exponent in root " + n + " of " + unit); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                exponents[i] = v[1][i] / n;
+            }
+            result = getInstance(new int[][] {v[0], exponents});
+            result = RESULTS.put(AlgebraCache.ROOT, unit, null, n, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the (identifiers, exponents) vector of the given unit. The returned arrays
+     * may be the internal arrays of a product and must not be modified.
+     */
+    private static int[][] vector(Unit<?> unit) {
+        if (unit instanceof ProductUnit<?>) {
+            final ProductUnit<?> product = (ProductUnit<?>) unit;
+            return new int[][] {product.ids, product.exponents};
+        }
+        if (!(unit instanceof TestUnit<?>)) {
+            throw new IllegalArgumentException("Unsupported unit: " + unit); //$NON-NLS-1$
+        }
+        if (ONE.equals(unit)) {
+            return new int[][] {EMPTY, EMPTY};
+        }
+        return new int[][] {new int[] {UnitIds.getId((TestUnit<?>) unit)}, new int[] {1}};
+    }
+
+    /**
+     * Merges two sorted vectors, adding the exponents of {@code v2} multiplied by {@code n}
+     * to those of {@code v1} and dropping the elements whose exponent becomes zero.
+     */
+    private static int[][] merge(int[][] v1, int[][] v2, int n) {
+        final int[] ids1 = v1[0], exp1 = v1[1];
+        final int[] ids2 = v2[0], exp2 = v2[1];
+        final int[] ids = new int[ids1.length + ids2.length];
+        final int[] exponents = new int[ids.length];
+        int i = 0, j = 0, k = 0;
+        while (i < ids1.length || j < ids2.length) {
+            final int id;
+            final int exponent;
+            if (j == ids2.length || (i < ids1.length && ids1[i] < ids2[j])) {
+                id = ids1[i];
+                exponent = exp1[i++];
+            } else if (i == ids1.length || ids2[j] < ids1[i]) {
+                id = ids2[j];
+                exponent = exp2[j++] * n;
+            } else {
+                id = ids1[i];
+                exponent = exp1[i++] + exp2[j++] * n;
+            }
+            if (exponent != 0) {
+                ids[k] = id;
+                exponents[k++] = exponent;
+            }
+        }
+        if (k == ids.length) {
+            return new int[][] {ids, exponents};
+        }
+        final int[] trimmedIds = new int[k];
+        final int[] trimmedExponents = new int[k];
+        System.arraycopy(ids, 0, trimmedIds, 0, k);
+        System.arraycopy(exponents, 0, trimmedExponents, 0, k);
+        return new int[][] {trimmedIds, trimmedExponents};
+    }
+
+    /**
+     * Returns the normalized and interned unit for the given vector.
+     */
+    private static Unit<?> getInstance(int[][] v) {
+        final int[] ids = v[0];
+        if (ids.length == 0) {
+            return ONE;
+        }
+        if (ids.length == 1 && v[1][0] == 1) {
+            return UnitIds.getUnit(ids[0]);
+        }
+        return intern(ProductUnit.newInstance(ids, v[1]));
+    }
+
+    /**
+     * Creates a product for the given vector, to be interned.
+     */
+    private static <Q extends Quantity<Q>> ProductUnit<Q> newInstance(int[] ids, int[] exponents) {
+        return new ProductUnit<Q>(ids, exponents);
+    }
+
+    /**
+     * Returns the unique instance structurally equal to the given product.
+     */
+    private static ProductUnit<?> intern(ProductUnit<?> candidate) {
+        synchronized (INSTANCES) {
+            final WeakReference<ProductUnit<?>> ref = INSTANCES.get(candidate);
+            if (ref != null) {
+                final ProductUnit<?> existing = ref.get();
+                if (existing != null) {
+                    return existing;
+                }
+            }
+            INSTANCES.put(candidate, new WeakReference<ProductUnit<?>>(candidate));
+            return candidate;
+        }
+    }
+
+    /**
+     * Returns the symbol, or the name if there is no symbol, used for formatting.
+     * Units having neither are labelled by their rendered text.
+     */
+    static String label(TestUnit<?> unit) {
+        final String symbol = unit.getSymbol();
+        if (symbol != null && symbol.length() != 0) {
+            return symbol;
+        }
+        final String name = unit.getName();
+        return (name != null) ? name : unit.toString();
+    }
+
+    /**
+     * Returns the {@linkplain UnitIds identifiers} of the element units, in increasing order.
+     *
+     * @return a copy of the element identifiers.
+     */
+    public int[] getUnitIds() {
+        return ids.clone();
+    }
+
+    /**
+     * Returns the exponents of the element units, in the order of {@link #getUnitIds()}.
+     *
+     * @return a copy of the element exponents.
+     */
+    public int[] getExponents() {
+        return exponents.clone();
+    }
+
+    @Override
+    public Map<Unit<?>, Integer> getProductUnits() {
+        Map<Unit<?>, Integer> map = productUnits;
+        if (map == null) {
+            map = new LinkedHashMap<Unit<?>, Integer>();
+            for (int i = 0; i < ids.length; i++) {
+                map.put(UnitIds.getUnit(ids[i]), exponents[i]);
+            }
+            productUnits = map = Collections.unmodifiableMap(map);
+        }
+        return map;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Unit<Q> getSystemUnit() {
+        Unit<Q> unit = systemUnit;
+        if (unit == null) {
+            int[][] v = {EMPTY, EMPTY};
+            for (int i = 0; i < ids.length; i++) {
+                v = merge(v, vector(UnitIds.getUnit(ids[i]).getSystemUnit()), exponents[i]);
+            }
+            systemUnit = unit = (Unit<Q>) getInstance(v);
+        }
+        return unit;
+    }
+
+    @Override
+    public Dimension getDimension() {
+        Dimension result = dimension;
+        if (result == null) {
+            result = PackedDimension.NONE;
+            for (int i = 0; i < ids.length; i++) {
+                result = result.multiply(UnitIds.getUnit(ids[i]).getDimension().pow(exponents[i]));
+            }
+            dimension = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the converter to the system unit, which is the product of the
+     * element scale factors raised to their exponents.
+     *
+     * @throws UnsupportedOperationException if an element is not a scaled unit.
+     */
+    @Override
+    public UnitConverter getSystemConverter() {
+        UnitConverter converter = systemConverter;
+        if (converter == null) {
+            systemConverter = converter = computeSystemConverter();
+        }
+        return converter;
+    }
+
+    private UnitConverter computeSystemConverter() {
+        double factor = 1;
+        for (int i = 0; i < ids.length; i++) {
+            final TestUnit<?> unit = UnitIds.getUnit(ids[i]);
+            final UnitConverter c = unit.getSystemConverter();
+            if (!(c instanceof TestConverter) || !((TestConverter) c).isAffine()
+                    || ((TestConverter) c).getOffset() != 0)
+            {
+                throw new UnsupportedOperationException("Non-linear unit in product: " + unit); //$NON-NLS-1$
+            }
+            factor *= Math.pow(((TestConverter) c).getScale(), exponents[i]);
+        }
+        return MultiplyConverter.valueOf(factor);
+    }
+
+    @Override
+    public double getMultFactor() {
+        return ((TestConverter) getSystemConverter()).getScale();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof ProductUnit<?>))
+            return false;
+        final ProductUnit<?> that = (ProductUnit<?>) obj;
+        return hash == that.hash && Arrays.equals(ids, that.ids) && Arrays.equals(exponents, that.exponents);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Formats the elements with positive exponents first, then the others, each group
+     * sorted by label. The identifier order depends on which units were used first and
+     * is kept for identity and hashing only.
+     */
+    @Override
+    String render() {
+        final int n = ids.length;
+        final String[] labels = new String[n];
+        final Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            labels[i] = label(UnitIds.getUnit(ids[i]));
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer i1, Integer i2) {
+                final boolean p1 = exponents[i1] > 0;
+                if (p1 != (exponents[i2] > 0)) {
+                    return p1 ? -1 : +1;
+                }
+                final int c = labels[i1].compareTo(labels[i2]);
+                return (c != 0) ? c : i1 - i2;
+            }
+        });
+        final StringBuilder buffer = new StringBuilder();
+        for (int k = 0; k < n; k++) {
+            final int i = order[k];
+            if (k != 0) {
+                buffer.append('\u00B7');
+            }
+            buffer.append(labels[i]);
+            if (exponents[i] != 1) {
+                buffer.append('^').append(exponents[i]);
+            }
+        }
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.unitsofmeasurement.quantity.Area;
+import org.unitsofmeasurement.quantity.ElectricCurrent;
+import org.unitsofmeasurement.quantity.Temperature;
+import org.unitsofmeasurement.quantity.Volume;
+import org.unitsofmeasurement.unit.IncommensurableException;
+import org.unitsofmeasurement.unit.Unit;
+
+
+public class ProductUnitTest {
+
+    @Test
+    public void testInterned() {
+        Unit<?> speed1 = DistanceUnit.m.divide(TimeUnit.s);
+        Unit<?> speed2 = TimeUnit.s.inverse().multiply(DistanceUnit.m);
+        assertSame(speed1, speed2);
+        assertEquals(Integer.valueOf(-1), speed1.getProductUnits().get(TimeUnit.s));
+        assertEquals(Integer.valueOf(1), speed1.getProductUnits().get(DistanceUnit.m));
+    }
+
+    @Test
+    public void testVector() {
+        ProductUnit<?> volume = (ProductUnit<?>) DistanceUnit.m.pow(2).multiply(DistanceUnit.m);
+        assertArrayEquals(new int[] {UnitIds.getId(DistanceUnit.m)}, volume.getUnitIds());
+        assertArrayEquals(new int[] {3}, volume.getExponents());
+    }
+
+    @Test
+    public void testSimplification() {
+        Unit<?> area = DistanceUnit.m.pow(2);
+        assertSame(DistanceUnit.m, area.divide(DistanceUnit.m));
+        assertSame(DistanceUnit.m, area.root(2));
+        assertSame(TestUnit.ONE, area.divide(area));
+        assertSame(TestUnit.ONE, DistanceUnit.m.pow(0));
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals("m\u00B7s^-1", TimeUnit.s.inverse().multiply(DistanceUnit.m).toString());
+        assertEquals("km\u00B7m^2\u00B7s^-2", TimeUnit.s.pow(-2).multiply(DistanceUnit.km).multiply(DistanceUnit.m.pow(2)).toString());
+    }
+
+    @Test
+    public void testDimension() {
+        Unit<?> speed = DistanceUnit.m.divide(TimeUnit.s);
+        assertSame(speed.getDimension(), speed.getDimension());
+        assertEquals(DistanceUnit.m.getDimension().divide(TimeUnit.s.getDimension()), speed.getDimension());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testFractionalRoot() {
+        DistanceUnit.m.pow(3).root(2);
+    }
+
+    @Test
+    public void testSystemUnit() throws Exception {
+        Unit<?> kmh = DistanceUnit.km.divide(TimeUnit.s);
+        assertSame(DistanceUnit.m.divide(TimeUnit.s), kmh.getSystemUnit());
+        assertEquals(2000, kmh.getConverterToAny(kmh.getSystemUnit()).convert(2.0), 1e-9);
+    }
+
+    @Test
+    public void testCompatible() throws Exception {
+        Unit<?> sqm = DistanceUnit.m.multiply(DistanceUnit.m);
+        assertTrue(AreaUnit.acre.isCompatible(sqm));
+        assertFalse(AreaUnit.acre.isCompatible(DistanceUnit.m));
+        assertEquals(4047, AreaUnit.acre.getConverterToAny(sqm).convert(1.0), 1e-9);
+    }
+
+    @Test(expected = IncommensurableException.class)
+    public void testIncompatible() throws Exception {
+        AreaUnit.acre.getConverterToAny(TimeUnit.s);
+    }
+
+    @Test
+    public void testBaseUnitsIncompatible() {
+        final Unit<?> ampere = new BaseUnit<ElectricCurrent>("A");
+        final Unit<?> kelvin = new BaseUnit<Temperature>("K");
+        assertFalse(ampere.isCompatible(kelvin));
+        assertFalse(ampere.isCompatible(TestUnit.ONE));
+        assertTrue(ampere.isCompatible(new BaseUnit<ElectricCurrent>("A")));
+        try {
+            ampere.getConverterToAny(kelvin);
+            fail("Ampere converted to kelvin"); //$NON-NLS-1$
+        } catch (IncommensurableException e) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testAsType() {
+        Unit<?> sqm = DistanceUnit.m.pow(2);
+        assertSame(sqm, sqm.asType(Area.class));
+        assertSame(sqm, sqm.asType(Area.class));
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void testAsWrongType() {
+        DistanceUnit.m.pow(2).asType(Volume.class);
+    }
+
+    @Test
+    public void testMemoized() {
+        Unit<?> speed = DistanceUnit.km.divide(TimeUnit.h);
+        long hits = ProductUnit.RESULTS.getHitCount();
+        assertSame(speed, DistanceUnit.km.divide(TimeUnit.h));
+        assertEquals(hits + 1, ProductUnit.RESULTS.getHitCount());
+        assertSame(((TestUnit<?>) speed).getSystemConverter(), ((TestUnit<?>) speed).getSystemConverter());
+    }
+}
@@ -10,18 +10,13 @@ package org.unitsofmeasurement.test.unit;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.HashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import org.unitsofmeasurement.quantity.Area;
-import org.unitsofmeasurement.quantity.Dimensionless;
-import org.unitsofmeasurement.quantity.Information;
-import org.unitsofmeasurement.quantity.Length;
 import org.unitsofmeasurement.quantity.Quantity;
-import org.unitsofmeasurement.quantity.Volume;
 import org.unitsofmeasurement.unit.Unit;
+import org.unitsofmeasurement.unit.UnitConverter;
 
 /**
  * A factory producing simple quantities instances (tuples {@link Number}/
@@ -65,15 +60,23 @@ abstract class QuantityFactory<Q extends Quantity<Q>> {
      */
     @SuppressWarnings("unchecked")
     public static <Q extends Quantity<Q>> QuantityFactory<Q> getInstance(final Class<Q> type) {
-        logger.log(LOG_LEVEL, "Type: " + type + ": " + type.isInterface());
-        QuantityFactory<Q> factory;
+        QuantityFactory<Q> factory = INSTANCES.get(type);
+        if (factory != null) {
+            return factory; // Most frequent: no reflection nor logging.
+        }
+        if (logger.isLoggable(LOG_LEVEL)) {
+            logger.log(LOG_LEVEL, "Type: " + type + ": " + type.isInterface());
+        }
         if (!type.isInterface()) {
             if (type != null && type.getInterfaces() != null & type.getInterfaces().length > 0) {
-                logger.log(LOG_LEVEL, "Type0: " + type.getInterfaces()[0]);
                 Class<?> type2 = type.getInterfaces()[0];
+                if (logger.isLoggable(LOG_LEVEL)) {
+                    logger.log(LOG_LEVEL, "Type0: " + type2);
+                }
                 factory = INSTANCES.get(type2);
                 if (factory != null) {
-                        return factory;
+                    INSTANCES.putIfAbsent(type, factory);
+                    return factory;
                 }
                 if (!Quantity.class.isAssignableFrom(type2)) {
                     // This exception is not documented because it should never happen if the
@@ -82,6 +85,7 @@ abstract class QuantityFactory<Q extends Quantity<Q>> {
                 }
                 factory = new Default<Q>((Class<Q>) type2);
                 INSTANCES.put(type2, factory);
+                INSTANCES.putIfAbsent(type, factory);
             } else {
                 factory = INSTANCES.get(type);
                 if (factory != null) {
@@ -178,48 +182,9 @@ abstract class QuantityFactory<Q extends Quantity<Q>> {
          * @param type
          *            The type of the quantities created by this factory.
          */
-        @SuppressWarnings("unchecked")
         Default(final Class<Q> type) {
             this.type = type;
-            metricUnit = CLASS_TO_METRIC_UNIT.get(type);
-        }
-
-        @SuppressWarnings("rawtypes")
-        static final HashMap<Class, Unit> CLASS_TO_METRIC_UNIT = new HashMap<Class, Unit>();
-        static {
-            CLASS_TO_METRIC_UNIT.put(Dimensionless.class, TestUnit.ONE);
-            // CLASS_TO_METRIC_UNIT.put(Mass.class, KILOGRAM);
-            CLASS_TO_METRIC_UNIT.put(Length.class, DistanceUnit.REF_UNIT);
-            // CLASS_TO_METRIC_UNIT.put(AmountOfSubstance.class, MOLE);
-            // CLASS_TO_METRIC_UNIT.put(Time.class, SECOND);
-            // CLASS_TO_METRIC_UNIT.put(MagnetomotiveForce.class, AMPERE_TURN);
-            // CLASS_TO_METRIC_UNIT.put(Angle.class, RADIAN);
-            // CLASS_TO_METRIC_UNIT.put(SolidAngle.class, STERADIAN);
-            CLASS_TO_METRIC_UNIT.put(Information.class, BitUnit.REF_UNIT);
-            // CLASS_TO_METRIC_UNIT.put(Frequency.class, HERTZ);
-            // CLASS_TO_METRIC_UNIT.put(Force.class, NEWTON);
-            // CLASS_TO_METRIC_UNIT.put(Pressure.class, PASCAL);
-            // CLASS_TO_METRIC_UNIT.put(Energy.class, JOULE);
-            // CLASS_TO_METRIC_UNIT.put(Power.class, WATT);
-            // CLASS_TO_METRIC_UNIT.put(ElectricCharge.class, COULOMB);
-            // CLASS_TO_METRIC_UNIT.put(ElectricPotential.class, VOLT);
-            // CLASS_TO_METRIC_UNIT.put(ElectricCapacitance.class, FARAD);
-            // CLASS_TO_METRIC_UNIT.put(ElectricResistance.class, OHM);
-            // CLASS_TO_METRIC_UNIT.put(ElectricConductance.class, SIEMENS);
-            // CLASS_TO_METRIC_UNIT.put(MagneticFlux.class, WEBER);
-            // CLASS_TO_METRIC_UNIT.put(MagneticFluxDensity.class, TESLA);
-            // CLASS_TO_METRIC_UNIT.put(ElectricInductance.class, HENRY);
-            // CLASS_TO_METRIC_UNIT.put(LuminousFlux.class, LUMEN);
-            // CLASS_TO_METRIC_UNIT.put(Illuminance.class, LUX);
-            // CLASS_TO_METRIC_UNIT.put(Radioactivity.class, BECQUEREL);
-            // CLASS_TO_METRIC_UNIT.put(RadiationDoseAbsorbed.class, GRAY);
-            // CLASS_TO_METRIC_UNIT.put(RadiationDoseEffective.class, SIEVERT);
-            // CLASS_TO_METRIC_UNIT.put(CatalyticActivity.class, KATAL);
-            // CLASS_TO_METRIC_UNIT.put(Speed.class, METRES_PER_SECOND);
-            // CLASS_TO_METRIC_UNIT.put(Acceleration.class,
-            // METRES_PER_SQUARE_SECOND);
-            CLASS_TO_METRIC_UNIT.put(Area.class, AreaUnit.REF_UNIT);
-            CLASS_TO_METRIC_UNIT.put(Volume.class, VolumeUnit.REF_UNIT);
+            metricUnit = QuantityTypes.getSystemUnit(type);
         }
 
         @Override
@@ -266,7 +231,17 @@ abstract class QuantityFactory<Q extends Quantity<Q>> {
                 if ((toUnit == unit) || (toUnit.equals(unit))) {
                     return value.longValue(); // Returns value directly.
                 }
-                double doubleValue = unit.getConverterTo(toUnit).convert(value.doubleValue());
+                final UnitConverter converter = unit.getConverterTo(toUnit);
+                if ((value instanceof Long) || (value instanceof Integer)
+                        || (value instanceof Short) || (value instanceof Byte))
+                {
+                    try {
+                        return converter.convertExact(value.longValue());
+                    } catch (ArithmeticException e) {
+                        // Not an integer result: fall back on floating-point.
+                    }
+                }
+                double doubleValue = converter.convert(value.doubleValue());
                 if ((doubleValue < Long.MIN_VALUE) || (doubleValue > Long.MAX_VALUE)) {
                     throw new ArithmeticException("Overflow: " + doubleValue
                                     + " cannot be represented as a long");
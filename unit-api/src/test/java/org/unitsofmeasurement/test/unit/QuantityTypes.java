@@ -0,0 +1,141 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.unitsofmeasurement.quantity.Area;
+import org.unitsofmeasurement.quantity.Dimensionless;
+import org.unitsofmeasurement.quantity.Information;
+import org.unitsofmeasurement.quantity.InformationRate;
+import org.unitsofmeasurement.quantity.Length;
+import org.unitsofmeasurement.quantity.Quantity;
+import org.unitsofmeasurement.quantity.Time;
+import org.unitsofmeasurement.quantity.Volume;
+import org.unitsofmeasurement.unit.Unit;
+
+
+/**
+ * Maps quantity interfaces to their system unit and dimension. The mapping of a class is
+ * resolved once, the first time it is requested, and then served from a concurrent map;
+ * classes without a known system unit are remembered too, so a miss is not resolved twice.
+ * Implementation classes of a quantity interface map like the interface they implement.
+ *
+ * @version 1.0
+ */
+final class QuantityTypes {
+    /**
+     * The system unit and dimension fingerprint of a quantity type.
+     */
+    static final class Entry {
+        /**
+         * The system unit, or {@code null} if unknown.
+         */
+        final Unit<?> systemUnit;
+
+        /**
+         * The packed dimension bits of the system unit, meaningful only if the unit is non-null.
+         */
+        final long fingerprint;
+
+        Entry(Unit<?> systemUnit) {
+            this.systemUnit = systemUnit;
+            fingerprint = (systemUnit instanceof TestUnit<?>)
+                    ? ((TestUnit<?>) systemUnit).getDimensionFingerprint() : 0;
+        }
+    }
+
+    private static final Entry UNKNOWN = new Entry(null);
+
+    /**
+     * The resolved entries, including {@link #UNKNOWN} for types without a system unit.
+     */
+    private static final ConcurrentMap<Class<?>, Entry> ENTRIES = new ConcurrentHashMap<Class<?>, Entry>();
+    static {
+        register(Dimensionless.class, TestUnit.ONE);
+        // register(Mass.class, KILOGRAM);
+        register(Length.class, DistanceUnit.REF_UNIT);
+        // register(AmountOfSubstance.class, MOLE);
+        register(Time.class, TimeUnit.REF_UNIT);
+        // register(MagnetomotiveForce.class, AMPERE_TURN);
+        // register(Angle.class, RADIAN);
+        // register(SolidAngle.class, STERADIAN);
+        register(Information.class, BitUnit.REF_UNIT);
+        register(InformationRate.class, BitRateUnit.REF_UNIT);
+        // register(Frequency.class, HERTZ);
+        // register(Force.class, NEWTON);
+        // register(Pressure.class, PASCAL);
+        // register(Energy.class, JOULE);
+        // register(Power.class, WATT);
+        // register(ElectricCharge.class, COULOMB);
+        // register(ElectricPotential.class, VOLT);
+        // register(ElectricCapacitance.class, FARAD);
+        // register(ElectricResistance.class, OHM);
+        // register(ElectricConductance.class, SIEMENS);
+        // register(MagneticFlux.class, WEBER);
+        // register(MagneticFluxDensity.class, TESLA);
+        // register(ElectricInductance.class, HENRY);
+        // register(LuminousFlux.class, LUMEN);
+        // register(Illuminance.class, LUX);
+        // register(Radioactivity.class, BECQUEREL);
+        // register(RadiationDoseAbsorbed.class, GRAY);
+        // register(RadiationDoseEffective.class, SIEVERT);
+        // register(CatalyticActivity.class, KATAL);
+        // register(Speed.class, METRES_PER_SECOND);
+        // register(Acceleration.class, METRES_PER_SQUARE_SECOND);
+        register(Area.class, AreaUnit.REF_UNIT);
+        register(Volume.class, VolumeUnit.REF_UNIT);
+    }
+
+    private QuantityTypes() {
+    }
+
+    private static void register(Class<? extends Quantity<?>> type, Unit<?> systemUnit) {
+        ENTRIES.put(type, new Entry(systemUnit));
+    }
+
+    /**
+     * Returns the entry for the given quantity type, resolving it on the first request.
+     *
+     * @param type the quantity interface or implementation class.
+     * @return the entry for the given type, never {@code null}.
+     */
+    static Entry get(Class<?> type) {
+        Entry entry = ENTRIES.get(type);
+        if (entry == null) {
+            entry = UNKNOWN;
+            for (Class<?> c : type.getInterfaces()) {
+                if (Quantity.class.isAssignableFrom(c)) {
+                    final Entry candidate = get(c);
+                    if (candidate.systemUnit != null) {
+                        entry = candidate;
+                        break;
+                    }
+                }
+            }
+            final Entry previous = ENTRIES.putIfAbsent(type, entry);
+            if (previous != null) {
+                entry = previous;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the system unit for the given quantity type, or {@code null} if unknown.
+     *
+     * @param <Q> the type of the quantity.
+     * @param type the quantity interface or implementation class.
+     * @return the system unit, or {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    static <Q extends Quantity<Q>> Unit<Q> getSystemUnit(Class<Q> type) {
+        return (Unit<Q>) get(type).systemUnit;
+    }
+}
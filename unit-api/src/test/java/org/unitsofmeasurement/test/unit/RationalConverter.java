@@ -0,0 +1,238 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * A linear converter multiplying numeric values by an exact ratio of integers, for
+ * example {@code 1609344/1000} for miles to metres. The ratio is kept in lowest terms
+ * with a positive divisor. Concatenating two rational (or {@linkplain PowerOfTenConverter
+ * power of ten}) converters gives an exact rational converter, so a chain of such
+ * conversions rounds only once.
+ *
+ * <p>When the divisor has no prime factor other than 2 and 5, its reciprocal is a
+ * finite decimal number and {@code BigDecimal} values are converted by a single exact
+ * multiplication, rounded once according to the {@code MathContext}. Other divisors
+ * require a division.</p>
+ *
+ * @version 1.0
+ */
+public class RationalConverter extends TestConverter {
+    private static final BigInteger TWO = BigInteger.valueOf(2);
+    private static final BigInteger FIVE = BigInteger.valueOf(5);
+
+    private final BigInteger dividend;
+    private final BigInteger divisor;
+
+    /**
+     * The ratio as an exact decimal number, or {@code null} if the ratio
+     * has no finite decimal expansion.
+     */
+    private final BigDecimal exactFactor;
+
+    /**
+     * The ratio as a {@code double}, used for {@code double} conversions.
+     */
+    private final double factor;
+
+    /**
+     * Creates a converter for the given ratio.
+     *
+     * @param dividend the dividend of the ratio.
+     * @param divisor the divisor of the ratio.
+     * @throws ArithmeticException if the divisor is zero.
+     */
+    public RationalConverter(long dividend, long divisor) {
+        this(BigInteger.valueOf(dividend), BigInteger.valueOf(divisor));
+    }
+
+    /**
+     * Creates a converter for the given ratio.
+     *
+     * @param dividend the dividend of the ratio.
+     * @param divisor the divisor of the ratio.
+     * @throws ArithmeticException if the divisor is zero.
+     */
+    public RationalConverter(BigInteger dividend, BigInteger divisor) {
+        if (divisor.signum() == 0) {
+            throw new ArithmeticException("Zero divisor"); //$NON-NLS-1$
+        }
+        if (divisor.signum() < 0) {
+            dividend = dividend.negate();
+            divisor = divisor.negate();
+        }
+        final BigInteger gcd = dividend.gcd(divisor);
+        if (!gcd.equals(BigInteger.ONE) && gcd.signum() != 0) {
+            dividend = dividend.divide(gcd);
+            divisor = divisor.divide(gcd);
+        }
+        this.dividend = dividend;
+        this.divisor = divisor;
+        this.factor = new BigDecimal(dividend).divide(new BigDecimal(divisor), MathContext.DECIMAL128).doubleValue();
+        this.exactFactor = decimalFactor(dividend, divisor);
+    }
+
+    /**
+     * Returns {@code dividend/divisor} as an exact decimal number,
+     * or {@code null} if the divisor has other prime factors than 2 and 5.
+     */
+    private static BigDecimal decimalFactor(BigInteger dividend, BigInteger divisor) {
+        BigInteger d = divisor;
+        int twos = d.getLowestSetBit();
+        d = d.shiftRight(twos);
+        int fives = 0;
+        BigInteger[] qr;
+        while ((qr = d.divideAndRemainder(FIVE))[1].signum() == 0) {
+            d = qr[0];
+            fives++;
+        }
+        if (!d.equals(BigInteger.ONE)) {
+            return null;
+        }
+        // dividend / (2^twos * 5^fives) = dividend * 2^(n-twos) * 5^(n-fives) / 10^n
+        final int n = Math.max(twos, fives);
+        final BigInteger scaled = dividend.multiply(TWO.pow(n - twos)).multiply(FIVE.pow(n - fives));
+        return new BigDecimal(scaled, n);
+    }
+
+    public BigInteger getDividend() {
+        return dividend;
+    }
+
+    public BigInteger getDivisor() {
+        return divisor;
+    }
+
+    /**
+     * Returns the given converter as a rational converter if it is an exact ratio
+     * of integers, or {@code null} otherwise.
+     */
+    static RationalConverter asRational(UnitConverter converter) {
+        if (converter instanceof RationalConverter) {
+            return (RationalConverter) converter;
+        }
+        if (converter instanceof PowerOfTenConverter) {
+            return ((PowerOfTenConverter) converter).toRational();
+        }
+        if (converter instanceof PowerOfTwoConverter) {
+            return ((PowerOfTwoConverter) converter).toRational();
+        }
+        return null;
+    }
+
+    @Override
+    boolean isAffine() {
+        return true;
+    }
+
+    @Override
+    double getScale() {
+        return factor;
+    }
+
+    @Override
+    double getOffset() {
+        return 0;
+    }
+
+    @Override
+    public boolean isIdentity() {
+        return dividend.equals(divisor);
+    }
+
+    @Override
+    public boolean isLinear() {
+        return true;
+    }
+
+    @Override
+    public UnitConverter inverse() {
+        return new RationalConverter(divisor, dividend);
+    }
+
+    @Override
+    public double convert(double value) {
+        return value * factor;
+    }
+
+    /**
+     * Since the ratio is in lowest terms, the result is an integer if and only if the
+     * value is a multiple of the divisor, so the division is done first and can not overflow.
+     */
+    @Override
+    public long convertExact(long value) throws ArithmeticException {
+        if (dividend.bitLength() < Long.SIZE && divisor.bitLength() < Long.SIZE) {
+            return multiplyExact(divideExact(value, divisor.longValue()), dividend.longValue());
+        }
+        final BigInteger[] qr = BigInteger.valueOf(value).multiply(dividend).divideAndRemainder(divisor);
+        if (qr[1].signum() != 0 || qr[0].bitLength() >= Long.SIZE) {
+            throw new ArithmeticException("No exact integer conversion of " + value + " by " + this); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return qr[0].longValue();
+    }
+
+    @Override
+    public BigDecimal convert(BigDecimal value, MathContext ctx) throws ArithmeticException {
+        if (exactFactor != null) {
+            return value.multiply(exactFactor, ctx);
+        }
+        return value.multiply(new BigDecimal(dividend)).divide(new BigDecimal(divisor), ctx);
+    }
+
+    @Override
+    public void convert(double[] src, int srcOff, double[] dst, int dstOff, int length) {
+        checkRange(src.length, srcOff, dst.length, dstOff, length);
+        LinearKernel.getInstance().apply(src, srcOff, dst, dstOff, length, factor, 0);
+    }
+
+    @Override
+    public void convert(float[] src, int srcOff, float[] dst, int dstOff, int length) {
+        checkRange(src.length, srcOff, dst.length, dstOff, length);
+        LinearKernel.getInstance().apply(src, srcOff, dst, dstOff, length, factor, 0);
+    }
+
+    /**
+     * Concatenates exactly with other rational converters.
+     */
+    @Override
+    public UnitConverter concatenate(UnitConverter converter) {
+        final RationalConverter that = asRational(converter);
+        if (that != null) {
+            final RationalConverter product = new RationalConverter(
+                    dividend.multiply(that.dividend), divisor.multiply(that.divisor));
+            return product.isIdentity() ? MultiplyConverter.IDENTITY : product;
+        }
+        return super.concatenate(converter);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof RationalConverter))
+            return false;
+        RationalConverter that = (RationalConverter) obj;
+        return dividend.equals(that.dividend) && divisor.equals(that.divisor);
+    }
+
+    @Override
+    public int hashCode() {
+        return dividend.hashCode() * 31 + divisor.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "RationalConverter(" + dividend + ", " + divisor + ')';
+    }
+}
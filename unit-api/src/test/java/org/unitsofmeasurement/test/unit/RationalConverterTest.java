@@ -0,0 +1,70 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+import org.junit.Test;
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+public class RationalConverterTest {
+    private final RationalConverter mileToM = new RationalConverter(1609344, 1000);
+
+    @Test
+    public void testLowestTerms() {
+        assertEquals(BigInteger.valueOf(201168), mileToM.getDividend());
+        assertEquals(BigInteger.valueOf(125), mileToM.getDivisor());
+    }
+
+    @Test
+    public void testConvertBigDecimal() {
+        BigDecimal m = mileToM.convert(new BigDecimal("2.5"), MathContext.UNLIMITED);
+        assertEquals(new BigDecimal("4023.3600"), m);
+        assertEquals(1609.344, mileToM.convert(1.0), 0);
+    }
+
+    @Test
+    public void testConvertNonDecimalRatio() {
+        UnitConverter third = new RationalConverter(1, 3);
+        assertEquals(new BigDecimal("0.3333"), third.convert(BigDecimal.ONE, new MathContext(4)));
+    }
+
+    @Test
+    public void testConcatenateExactly() {
+        UnitConverter c = mileToM.concatenate(new PowerOfTenConverter(3)).concatenate(new RationalConverter(1, 3));
+        assertTrue(c instanceof RationalConverter);
+        assertEquals(new BigDecimal("536448"), c.convert(BigDecimal.ONE, MathContext.DECIMAL128));
+        assertTrue(c.concatenate(c.inverse()).isIdentity());
+    }
+
+    @Test
+    public void testConvertExact() {
+        assertEquals(4828032L, mileToM.convertExact(3000));
+        assertEquals(-12000L, new PowerOfTenConverter(3).convertExact(-12));
+        assertEquals(8L * 1024, new RationalConverter(8, 1).convertExact(1024));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testConvertExactInexact() {
+        mileToM.convertExact(1);
+    }
+
+    @Test
+    public void testPowerOfTen() {
+        UnitConverter kmToMm = new PowerOfTenConverter(3).concatenate(new PowerOfTenConverter(3));
+        assertEquals(new PowerOfTenConverter(6), kmToMm);
+        assertEquals(new BigDecimal("1.5E+6"), kmToMm.convert(new BigDecimal("1.5"), MathContext.DECIMAL64));
+        assertEquals(0.001, new PowerOfTenConverter(-3).convert(1), 0);
+    }
+}
@@ -0,0 +1,303 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.nio.BufferOverflowException;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.List;
+
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * Base class of the converters used by the test units. Subclasses need only to
+ * implement {@link #convert(double)}; the bulk conversion methods loop over that
+ * method and should be overridden when a tighter loop is possible.
+ *
+ * @version 1.1
+ */
+public abstract class TestConverter implements UnitConverter {
+    /**
+     * Number of values copied at once from direct buffers to a temporary array.
+     * Small enough for the array to stay in the processor cache.
+     */
+    private static final int CHUNK_SIZE = 512;
+
+    protected TestConverter() {
+    }
+
+    public boolean isIdentity() {
+        return false;
+    }
+
+    public abstract boolean isLinear();
+
+    public abstract UnitConverter inverse();
+
+    public abstract double convert(double value);
+
+    public Number convert(Number value) {
+        if (value instanceof BigDecimal) {
+            return convert((BigDecimal) value, MathContext.DECIMAL128);
+        }
+        return Double.valueOf(convert(value.doubleValue()));
+    }
+
+    public BigDecimal convert(BigDecimal value, MathContext ctx) throws ArithmeticException {
+        return new BigDecimal(convert(value.doubleValue()), ctx);
+    }
+
+    /**
+     * Throws {@link ArithmeticException}, since the default {@code BigDecimal} path goes
+     * through {@code double} and could return an approximated result. Subclasses override
+     * this method when the conversion can be done exactly.
+     */
+    public long convertExact(long value) throws ArithmeticException {
+        throw new ArithmeticException("No exact integer conversion for " + this); //$NON-NLS-1$
+    }
+
+    /**
+     * Converts the given value exactly through the stages of the given converter, keeping
+     * the intermediate results as fractions so that only the final result needs to be an
+     * integer. Rational stages are applied as is, and other affine stages by the decimal
+     * values of their coefficients, as in the {@code BigDecimal} path.
+     *
+     * @throws ArithmeticException if a stage is not affine, or if the result is not an
+     *         integer or overflows a {@code long}.
+     */
+    static long convertExact(UnitConverter converter, long value) throws ArithmeticException {
+        final BigInteger[] fraction = {BigInteger.valueOf(value), BigInteger.ONE};
+        apply(converter, fraction);
+        final BigInteger[] qr = fraction[0].divideAndRemainder(fraction[1]);
+        if (qr[1].signum() != 0) {
+            throw new ArithmeticException(value + " is not converted to an integer by " + converter); //$NON-NLS-1$
+        }
+        if (qr[0].bitLength() >= Long.SIZE) {
+            throw new ArithmeticException("Overflow converting " + value + " by " + converter); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return qr[0].longValue();
+    }
+
+    /**
+     * Applies the given converter to the {numerator, denominator} fraction, in place.
+     */
+    private static void apply(UnitConverter converter, BigInteger[] fraction) {
+        final List<? extends UnitConverter> stages = converter.getCompoundConverters();
+        if (stages != null) {
+            for (int i = stages.size(); --i >= 0;) {
+                apply(stages.get(i), fraction);
+            }
+            return;
+        }
+        final RationalConverter rational = RationalConverter.asRational(converter);
+        if (rational != null) {
+            fraction[0] = fraction[0].multiply(rational.getDividend());
+            fraction[1] = fraction[1].multiply(rational.getDivisor());
+            return;
+        }
+        if (!(converter instanceof TestConverter) || !((TestConverter) converter).isAffine()) {
+            throw new ArithmeticException("No exact integer conversion for " + converter); //$NON-NLS-1$
+        }
+        final TestConverter c = (TestConverter) converter;
+        final BigInteger[] a = toFraction(BigDecimal.valueOf(c.getScale()));
+        final BigInteger[] b = toFraction(BigDecimal.valueOf(c.getOffset()));
+        // (n/d)*(an/ad) + bn/bd = (n*an*bd + bn*d*ad) / (d*ad*bd)
+        final BigInteger d = fraction[1].multiply(a[1]);
+        fraction[0] = fraction[0].multiply(a[0]).multiply(b[1]).add(b[0].multiply(d));
+        fraction[1] = d.multiply(b[1]);
+    }
+
+    /**
+     * Returns the given decimal as a {numerator, denominator} fraction.
+     */
+    private static BigInteger[] toFraction(BigDecimal value) {
+        if (value.scale() <= 0) {
+            return new BigInteger[] {value.toBigIntegerExact(), BigInteger.ONE};
+        }
+        return new BigInteger[] {value.unscaledValue(), BigInteger.TEN.pow(value.scale())};
+    }
+
+    public void convert(double[] src, int srcOff, double[] dst, int dstOff, int length) {
+        checkRange(src.length, srcOff, dst.length, dstOff, length);
+        if (isBackward(src, srcOff, dst, dstOff)) {
+            for (int i = length; --i >= 0;) {
+                dst[dstOff + i] = convert(src[srcOff + i]);
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                dst[dstOff + i] = convert(src[srcOff + i]);
+            }
+        }
+    }
+
+    public void convert(float[] src, int srcOff, float[] dst, int dstOff, int length) {
+        checkRange(src.length, srcOff, dst.length, dstOff, length);
+        if (isBackward(src, srcOff, dst, dstOff)) {
+            for (int i = length; --i >= 0;) {
+                dst[dstOff + i] = (float) convert((double) src[srcOff + i]);
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                dst[dstOff + i] = (float) convert((double) src[srcOff + i]);
+            }
+        }
+    }
+
+    /**
+     * Converts the buffer backing arrays directly if both buffers have one. Otherwise the
+     * values are transferred by chunks small enough to stay in the processor cache, and each
+     * chunk is converted by {@link #convert(double[], int, double[], int, int)}, so subclasses
+     * only need to specialize the array methods.
+     */
+    public void convert(DoubleBuffer src, DoubleBuffer dst) {
+        final int length = checkBuffers(src, dst, src.remaining(), dst.remaining(), dst.isReadOnly());
+        if (src.hasArray() && dst.hasArray()) {
+            convert(src.array(), src.arrayOffset() + src.position(),
+                    dst.array(), dst.arrayOffset() + dst.position(), length);
+            src.position(src.position() + length);
+            dst.position(dst.position() + length);
+        } else {
+            final double[] chunk = new double[Math.min(length, CHUNK_SIZE)];
+            for (int remaining = length; remaining > 0;) {
+                final int n = Math.min(remaining, chunk.length);
+                src.get(chunk, 0, n);
+                convert(chunk, 0, chunk, 0, n);
+                dst.put(chunk, 0, n);
+                remaining -= n;
+            }
+        }
+    }
+
+    public void convert(FloatBuffer src, FloatBuffer dst) {
+        final int length = checkBuffers(src, dst, src.remaining(), dst.remaining(), dst.isReadOnly());
+        if (src.hasArray() && dst.hasArray()) {
+            convert(src.array(), src.arrayOffset() + src.position(),
+                    dst.array(), dst.arrayOffset() + dst.position(), length);
+            src.position(src.position() + length);
+            dst.position(dst.position() + length);
+        } else {
+            final float[] chunk = new float[Math.min(length, CHUNK_SIZE)];
+            for (int remaining = length; remaining > 0;) {
+                final int n = Math.min(remaining, chunk.length);
+                src.get(chunk, 0, n);
+                convert(chunk, 0, chunk, 0, n);
+                dst.put(chunk, 0, n);
+                remaining -= n;
+            }
+        }
+    }
+
+    /**
+     * Verifies the buffer arguments and returns the number of values to convert.
+     */
+    private static int checkBuffers(Object src, Object dst, int srcRemaining, int dstRemaining, boolean readOnly) {
+        if (src == dst) {
+            throw new IllegalArgumentException("Source and destination are the same buffer"); //$NON-NLS-1$
+        }
+        if (readOnly) {
+            throw new ReadOnlyBufferException();
+        }
+        if (dstRemaining < srcRemaining) {
+            throw new BufferOverflowException();
+        }
+        return srcRemaining;
+    }
+
+    /**
+     * Concatenates this converter with the given one. If both converters are affine
+     * ({@code a*x + b}), they are fused into a single {@link AffineConverter} which
+     * still reports the original stages through {@link #getCompoundConverters()}.
+     */
+    public UnitConverter concatenate(UnitConverter converter) {
+        if (converter.isIdentity()) {
+            return this;
+        }
+        if (isIdentity()) {
+            return converter;
+        }
+        if (isAffine() && (converter instanceof TestConverter) && ((TestConverter) converter).isAffine()) {
+            return new AffineConverter(this, (TestConverter) converter);
+        }
+        return new CompoundConverter(this, converter);
+    }
+
+    public List<? extends UnitConverter> getCompoundConverters() {
+        return null;
+    }
+
+    /**
+     * Returns {@code true} if this converter is the affine function
+     * <code>{@linkplain #getScale() scale}*x + {@linkplain #getOffset() offset}</code>.
+     */
+    boolean isAffine() {
+        return false;
+    }
+
+    /**
+     * Returns the scale factor of this converter if it {@linkplain #isAffine() is affine}.
+     */
+    double getScale() {
+        return Double.NaN;
+    }
+
+    /**
+     * Returns the offset of this converter if it {@linkplain #isAffine() is affine}.
+     */
+    double getOffset() {
+        return Double.NaN;
+    }
+
+    /**
+     * Returns {@code x * y}, throwing an exception if the result overflows a {@code long}.
+     */
+    static long multiplyExact(long x, long y) {
+        final long r = x * y;
+        if (((Math.abs(x) | Math.abs(y)) >>> 31) != 0) {
+            if ((y != 0 && r / y != x) || (x == Long.MIN_VALUE && y == -1)) {
+                throw new ArithmeticException("Overflow: " + x + " * " + y); //$NON-NLS-1$
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Returns {@code x / y}, throwing an exception if the division is not exact.
+     */
+    static long divideExact(long x, long y) {
+        if (x % y != 0) {
+            throw new ArithmeticException(x + " is not a multiple of " + y); //$NON-NLS-1$
+        }
+        if (x == Long.MIN_VALUE && y == -1) {
+            throw new ArithmeticException("Overflow: " + x + " / " + y); //$NON-NLS-1$
+        }
+        return x / y;
+    }
+
+    /**
+     * Ensures that the given ranges are inside the source and destination arrays.
+     */
+    static void checkRange(int srcLength, int srcOff, int dstLength, int dstOff, int length) {
+        if ((srcOff | dstOff | length) < 0 || srcOff > srcLength - length || dstOff > dstLength - length) {
+            throw new IndexOutOfBoundsException("Range [" + srcOff + ", " + dstOff + "] + " + length
+                    + " exceeds array lengths " + srcLength + ", " + dstLength); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Returns {@code true} if a bulk conversion must iterate from the last value to the first one,
+     * because the destination range may overlap the source range at a higher index.
+     */
+    static boolean isBackward(Object src, int srcOff, Object dst, int dstOff) {
+        return (src == dst) && (srcOff < dstOff);
+    }
+}
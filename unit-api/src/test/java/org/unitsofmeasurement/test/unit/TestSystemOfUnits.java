@@ -0,0 +1,140 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.unitsofmeasurement.quantity.Area;
+import org.unitsofmeasurement.quantity.Dimensionless;
+import org.unitsofmeasurement.quantity.Information;
+import org.unitsofmeasurement.quantity.InformationRate;
+import org.unitsofmeasurement.quantity.Length;
+import org.unitsofmeasurement.quantity.Quantity;
+import org.unitsofmeasurement.quantity.Time;
+import org.unitsofmeasurement.quantity.Volume;
+import org.unitsofmeasurement.unit.Dimension;
+import org.unitsofmeasurement.unit.SystemOfUnits;
+import org.unitsofmeasurement.unit.Unit;
+
+
+/**
+ * An immutable system of units. The index from {@link Dimension} to units and the index
+ * from quantity type to unit are built once by the constructor, so {@link #getUnits(Dimension)}
+ * and {@link #getUnit(Class)} are map lookups returning shared unmodifiable sets and units.
+ *
+ * @version 1.0
+ */
+public class TestSystemOfUnits implements SystemOfUnits {
+    /**
+     * The system of the test units, created when first requested.
+     */
+    private static final class Default {
+        static final TestSystemOfUnits INSTANCE;
+        static {
+            final Map<Class<? extends Quantity<?>>, Unit<?>> quantities = new LinkedHashMap<Class<? extends Quantity<?>>, Unit<?>>();
+            quantities.put(Dimensionless.class, TestUnit.ONE);
+            quantities.put(Length.class, DistanceUnit.m);
+            quantities.put(Time.class, TimeUnit.s);
+            quantities.put(Area.class, AreaUnit.sqmetre);
+            quantities.put(Volume.class, VolumeUnit.cumetre);
+            quantities.put(Information.class, BitUnit.bit);
+            quantities.put(InformationRate.class, BitRateUnit.bps);
+            INSTANCE = new TestSystemOfUnits("Test", quantities, Arrays.<Unit<?>>asList( //$NON-NLS-1$
+                    DistanceUnit.km, DistanceUnit.cm, DistanceUnit.in, DistanceUnit.mile,
+                    TimeUnit.h, AreaUnit.acre, AreaUnit.hectare, AreaUnit.sqmile,
+                    BitUnit.kb, BitRateUnit.kb));
+        }
+    }
+
+    private final String name;
+
+    /**
+     * All units, in insertion order.
+     */
+    private final Set<Unit<?>> units;
+
+    /**
+     * The units of each dimension.
+     */
+    private final Map<Dimension, Set<Unit<?>>> unitsByDimension;
+
+    /**
+     * The unit of each quantity type.
+     */
+    private final Map<Class<?>, Unit<?>> unitsByQuantity;
+
+    /**
+     * Creates a system of units.
+     *
+     * @param name the name of this system.
+     * @param quantities the unit of each quantity type; those units are part of the system.
+     * @param others additional units of the system.
+     */
+    public TestSystemOfUnits(String name, Map<? extends Class<? extends Quantity<?>>, ? extends Unit<?>> quantities,
+            Collection<? extends Unit<?>> others)
+    {
+        this.name = name;
+        final Set<Unit<?>> all = new LinkedHashSet<Unit<?>>(quantities.values());
+        all.addAll(others);
+        units = Collections.unmodifiableSet(all);
+        unitsByQuantity = new HashMap<Class<?>, Unit<?>>(quantities);
+        final Map<Dimension, Set<Unit<?>>> byDimension = new HashMap<Dimension, Set<Unit<?>>>();
+        for (Unit<?> unit : all) {
+            final Dimension dimension = unit.getDimension();
+            Set<Unit<?>> set = byDimension.get(dimension);
+            if (set == null) {
+                set = new LinkedHashSet<Unit<?>>();
+                byDimension.put(dimension, set);
+            }
+            set.add(unit);
+        }
+        for (Map.Entry<Dimension, Set<Unit<?>>> entry : byDimension.entrySet()) {
+            entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+        }
+        unitsByDimension = byDimension;
+    }
+
+    /**
+     * Returns the system of the test units.
+     *
+     * @return the system of the test units.
+     */
+    public static TestSystemOfUnits getInstance() {
+        return Default.INSTANCE;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <Q extends Quantity<Q>> Unit<Q> getUnit(Class<Q> quantityType) {
+        return (Unit<Q>) unitsByQuantity.get(quantityType);
+    }
+
+    public Set<Unit<?>> getUnits() {
+        return units;
+    }
+
+    public Set<Unit<?>> getUnits(Dimension dimension) {
+        final Set<Unit<?>> set = unitsByDimension.get(dimension);
+        return (set != null) ? set : Collections.<Unit<?>>emptySet();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.Test;
+import org.unitsofmeasurement.quantity.Length;
+import org.unitsofmeasurement.unit.Unit;
+
+
+public class TestSystemOfUnitsTest {
+    private final TestSystemOfUnits system = TestSystemOfUnits.getInstance();
+
+    @Test
+    public void testUnitsByDimension() {
+        Set<Unit<?>> lengths = system.getUnits(PackedDimension.LENGTH);
+        assertEquals(5, lengths.size());
+        assertTrue(lengths.contains(DistanceUnit.km));
+        assertSame(lengths, system.getUnits(DistanceUnit.m.getDimension()));
+        assertTrue(system.getUnits(PackedDimension.MASS).isEmpty());
+    }
+
+    @Test
+    public void testUnitByQuantity() {
+        assertSame(DistanceUnit.m, system.getUnit(Length.class));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        system.getUnits().clear();
+    }
+}
@@ -7,6 +7,7 @@
  */
 package org.unitsofmeasurement.test.unit;
 
+import java.util.Collections;
 import java.util.Map;
 
 import org.unitsofmeasurement.quantity.Dimensionless;
@@ -25,8 +26,33 @@ public abstract class TestUnit<Q extends Quantity<Q>> implements Unit<Q> {
 
     public static final Unit<Dimensionless> ONE = new BaseUnit<Dimensionless>("one");
 
+    /**
+     * The converters resolved by {@link #getConverterToAny(Unit)}, shared by all test units.
+     */
+    static final ConverterCache CONVERTERS = new ConverterCache(1024);
+
     // public static final Unit<Mass> METRIC_MASS = QuantityFactory.getInstance(Mass.class).getMetricUnit();
 
+    /**
+     * Fingerprint values which can not be packed dimension bits, since those leave the highest bits clear.
+     */
+    private static final long UNKNOWN = -1, UNPACKED = Long.MIN_VALUE;
+
+    /**
+     * The cached value of {@link #getDimensionFingerprint()}, or {@link #UNKNOWN}.
+     */
+    private volatile long dimensionFingerprint = UNKNOWN;
+
+    /**
+     * The quantity type of the last successful {@link #asType(Class)} call.
+     */
+    private volatile Class<?> checkedType;
+
+    /**
+     * The text returned by {@link #toString()}, rendered when first requested.
+     */
+    private volatile String text;
+
     String symbol; // e.g. "A"
     String name; // e.g. "Angstrom"
     double multFactor; // e.g. 1E-10
@@ -59,40 +85,86 @@ public abstract class TestUnit<Q extends Quantity<Q>> implements Unit<Q> {
         return null;
     }
 
+    /**
+     * Casts this unit to the given quantity type. The dimension check is a comparison of
+     * {@linkplain #getDimensionFingerprint() fingerprints}, and is skipped entirely when
+     * the type is the same as in the previous successful call.
+     */
+    @SuppressWarnings("unchecked")
     public <T extends Quantity<T>> Unit<T> asType(Class<T> type) throws ClassCastException {
-//      Unit<T> metricUnit = QuantityFactory.getInstance(type).getMetricUnit();
-//      if ((metricUnit == null) || metricUnit.isCompatible(this))
-//          return (Unit<T>) this;
-//      throw new ClassCastException("The unit: " + this //$NON-NLS-1$
-//              + " is not of parameterized type " + type); //$NON-NLS-1$
-        return null;
+        if (type != checkedType) {
+            final QuantityTypes.Entry entry = QuantityTypes.get(type);
+            if (entry.systemUnit != null && entry.fingerprint != getDimensionFingerprint()) {
+                throw new ClassCastException("The unit: " + this //$NON-NLS-1$
+                        + " is not of parameterized type " + type); //$NON-NLS-1$
+            }
+            checkedType = type;
+        }
+        return (Unit<T>) this;
     }
 
     public Unit<Q> divide(double divisor) {
-        // TODO Auto-generated method stub
-        return null;
+        return transform(MultiplyConverter.valueOf(divisor).inverse());
     }
 
     public Unit<?> divide(Unit<?> that) {
-        // TODO Auto-generated method stub
-        return null;
+        return ProductUnit.getQuotientInstance(this, that);
     }
 
     public UnitConverter getConverterTo(Unit<Q> that) throws UnconvertibleException {
-        // TODO Auto-generated method stub
-        return null;
+        try {
+            return getConverterToAny(that);
+        } catch (IncommensurableException e) {
+            throw new UnconvertibleException(e);
+        }
     }
 
     public UnitConverter getConverterToAny(Unit<?> that)
             throws IncommensurableException, UnconvertibleException
     {
-        // TODO Auto-generated method stub
-        return null;
+        if (this == that) {
+            return MultiplyConverter.IDENTITY;
+        }
+        UnitConverter converter = CONVERTERS.get(this, that);
+        if (converter == null) {
+            converter = CONVERTERS.put(this, that, resolveConverterTo(that));
+        }
+        return converter;
+    }
+
+    /**
+     * Builds the converter from this unit to the given unit, going through their system units.
+     * Units of equal dimension are assumed to have system units of the same scale.
+     */
+    private UnitConverter resolveConverterTo(Unit<?> that) throws IncommensurableException {
+        if (!(that instanceof TestUnit<?>)) {
+            throw new UnconvertibleException("Unsupported unit: " + that); //$NON-NLS-1$
+        }
+        if (!isCompatible(that)) {
+            throw new IncommensurableException(this + " is not compatible with " + that); //$NON-NLS-1$
+        }
+        return ((TestUnit<?>) that).getSystemConverter().inverse().concatenate(getSystemConverter());
+    }
+
+    /**
+     * Returns the converter from this unit to its {@linkplain #getSystemUnit() system unit}.
+     */
+    public UnitConverter getSystemConverter() {
+        if (getSystemUnit() == this) {
+            return MultiplyConverter.IDENTITY;
+        }
+        if (addFactor != 0) {
+            return new AffineConverter(multFactor, addFactor);
+        }
+        return MultiplyConverter.valueOf(multFactor);
     }
 
     public Dimension getDimension() {
-        // TODO Auto-generated method stub
-        return null;
+        final Unit<Q> systemUnit = getSystemUnit();
+        if (systemUnit != this) {
+            return systemUnit.getDimension();
+        }
+        return PackedDimension.NONE;
     }
 
     public String getName() {
@@ -100,8 +172,7 @@ public abstract class TestUnit<Q extends Quantity<Q>> implements Unit<Q> {
     }
 
     public Map<Unit<?>, Integer> getProductUnits() {
-        // TODO Auto-generated method stub
-        return null;
+        return Collections.<Unit<?>, Integer>singletonMap(this, 1);
     }
 
     public String getSymbol() {
@@ -109,43 +180,96 @@ public abstract class TestUnit<Q extends Quantity<Q>> implements Unit<Q> {
     }
 
     public Unit<?> inverse() {
-        // TODO Auto-generated method stub
-        return null;
+        return ProductUnit.getPowInstance(this, -1);
     }
 
+    /**
+     * Returns {@code true} if both units have the same dimension. Between test units this
+     * is a comparison of their {@linkplain #getDimensionFingerprint() fingerprints}.
+     * Units which are their own system unit and declare no dimension report
+     * {@link PackedDimension#NONE}, so dimensionless units are furthermore required to
+     * have the same system unit: two unrelated base units are not compatible.
+     */
     public boolean isCompatible(Unit<?> that) {
-        // TODO Auto-generated method stub
-        return false;
+        if (this == that) {
+            return true;
+        }
+        final boolean sameDimension;
+        if (that instanceof TestUnit<?> && getDimensionFingerprint() != UNPACKED) {
+            sameDimension = getDimensionFingerprint() == ((TestUnit<?>) that).getDimensionFingerprint();
+        } else {
+            sameDimension = getDimension().equals(that.getDimension());
+        }
+        if (sameDimension && PackedDimension.NONE.equals(getDimension())) {
+            return getSystemUnit().equals(that.getSystemUnit());
+        }
+        return sameDimension;
+    }
+
+    /**
+     * Returns the {@linkplain PackedDimension#bits() packed bits} of this unit's dimension,
+     * computed once. Returns {@link #UNPACKED} if the dimension is not a {@link PackedDimension}.
+     */
+    final long getDimensionFingerprint() {
+        long fingerprint = dimensionFingerprint;
+        if (fingerprint == UNKNOWN) {
+            final Dimension dimension = getDimension();
+            fingerprint = (dimension instanceof PackedDimension) ? ((PackedDimension) dimension).bits() : UNPACKED;
+            dimensionFingerprint = fingerprint;
+        }
+        return fingerprint;
     }
 
+    /**
+     * Returns this unit scaled by the given factor. Factors of SI or binary prefixes
+     * reuse the shared {@link PowerOfTenConverter} or {@link PowerOfTwoConverter}.
+     */
     public Unit<Q> multiply(double factor) {
-        // TODO Auto-generated method stub
-        return null;
+        return transform(MultiplyConverter.valueOf(factor));
     }
 
     public Unit<?> multiply(Unit<?> that) {
-        // TODO Auto-generated method stub
-        return null;
+        return ProductUnit.getProductInstance(this, that);
     }
 
     public Unit<?> pow(int n) {
-        // TODO Auto-generated method stub
-        return null;
+        return ProductUnit.getPowInstance(this, n);
     }
 
     public Unit<?> root(int n) {
-        // TODO Auto-generated method stub
-        return null;
+        return ProductUnit.getRootInstance(this, n);
     }
 
     public abstract Unit<Q> getSystemUnit();
 
     public Unit<Q> transform(UnitConverter operation) {
-        // TODO Auto-generated method stub
-        return null;
+        if (operation.isIdentity()) {
+            return this;
+        }
+        return new TransformedUnit<Q>(null, this, operation);
     }
 
     public double getMultFactor() {
         return multFactor;
     }
+
+    /**
+     * Renders the text of this unit. Invoked once by {@link #toString()}, which keeps the result.
+     */
+    String render() {
+        return ProductUnit.label(this);
+    }
+
+    /**
+     * Returns the symbol of this unit, or the product of its elements such as
+     * <code>m&middot;s^-2</code> for derived units. The text is rendered once and kept with the unit.
+     */
+    @Override
+    public final String toString() {
+        String t = text;
+        if (t == null) {
+            text = t = render();
+        }
+        return t;
+    }
 }
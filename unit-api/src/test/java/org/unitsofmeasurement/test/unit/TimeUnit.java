@@ -8,6 +8,7 @@
 package org.unitsofmeasurement.test.unit;
 
 import org.unitsofmeasurement.quantity.Time;
+import org.unitsofmeasurement.unit.Dimension;
 import org.unitsofmeasurement.unit.Unit;
 
 
@@ -17,6 +18,8 @@ import org.unitsofmeasurement.unit.Unit;
  */
 public class TimeUnit extends BaseUnit<Time> {
 
+    private static final Dimension DIMENSION = PackedDimension.TIME;
+
     public static final TimeUnit s = new TimeUnit("s", 1.0); // reference Unit
     public static final TimeUnit REF_UNIT = s; // reference Unit
     public static final TimeUnit h = new TimeUnit("h", 60);
@@ -31,4 +34,9 @@ public class TimeUnit extends BaseUnit<Time> {
     public Unit<Time> getSystemUnit() {
         return REF_UNIT;
     }
+
+    @Override
+    public Dimension getDimension() {
+        return DIMENSION;
+    }
 }
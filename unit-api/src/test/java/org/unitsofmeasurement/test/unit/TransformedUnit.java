@@ -0,0 +1,145 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import org.unitsofmeasurement.quantity.Quantity;
+import org.unitsofmeasurement.unit.Dimension;
+import org.unitsofmeasurement.unit.Unit;
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * A unit derived from a parent unit by a converter, for example a prefixed or scaled unit.
+ * Transforming a transformed unit concatenates the converters, so the parent of a
+ * transformed unit is never itself a transformed unit.
+ *
+ * @param <Q> The type of the quantity measured by this unit.
+ *
+ * @version 1.0
+ */
+public class TransformedUnit<Q extends Quantity<Q>> extends TestUnit<Q> {
+    private final TestUnit<Q> parent;
+
+    /**
+     * The converter from this unit to the parent unit.
+     */
+    private final UnitConverter converter;
+
+    /**
+     * The converter to the system unit, computed when first requested.
+     */
+    private volatile UnitConverter systemConverter;
+
+    /**
+     * Creates a unit derived from the given parent.
+     *
+     * @param symbol the symbol of the new unit, or {@code null} if none.
+     * @param parent the unit from which this unit is derived.
+     * @param converter the converter from this unit to the parent unit.
+     */
+    public TransformedUnit(String symbol, TestUnit<Q> parent, UnitConverter converter) {
+        if (parent instanceof TransformedUnit<?>) {
+            final TransformedUnit<Q> p = (TransformedUnit<Q>) parent;
+            converter = p.converter.concatenate(converter);
+            parent = p.parent;
+        }
+        this.symbol = symbol;
+        this.parent = parent;
+        this.converter = converter;
+    }
+
+    public TestUnit<Q> getParentUnit() {
+        return parent;
+    }
+
+    public UnitConverter getParentConverter() {
+        return converter;
+    }
+
+    @Override
+    public Unit<Q> getSystemUnit() {
+        return parent.getSystemUnit();
+    }
+
+    @Override
+    public UnitConverter getSystemConverter() {
+        UnitConverter c = systemConverter;
+        if (c == null) {
+            systemConverter = c = parent.getSystemConverter().concatenate(converter);
+        }
+        return c;
+    }
+
+    @Override
+    public double getMultFactor() {
+        return ((TestConverter) getSystemConverter()).getScale();
+    }
+
+    @Override
+    public Dimension getDimension() {
+        return parent.getDimension();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof TransformedUnit<?>))
+            return false;
+        final TransformedUnit<?> that = (TransformedUnit<?>) obj;
+        return parent.equals(that.parent) && converter.equals(that.converter);
+    }
+
+    @Override
+    public int hashCode() {
+        return parent.hashCode() * 31 + converter.hashCode();
+    }
+
+    /**
+     * Returns the symbol, or the symbol of the prefix matching the converter followed by the
+     * label of a simple parent (e.g. {@code "km"} for {@code m.multiply(1000)}), which unit
+     * formats can parse back. Other symbol-less units are rendered as a composition with the
+     * converter.
+     */
+    @Override
+    String render() {
+        if (symbol != null) {
+            return symbol;
+        }
+        final String prefix = prefixSymbol();
+        if (prefix != null) {
+            return prefix + ProductUnit.label(parent);
+        }
+        return ProductUnit.label(parent) + " \u2218 " + converter; //$NON-NLS-1$
+    }
+
+    /**
+     * Returns the symbol of the metric or binary prefix whose converter is the converter
+     * of this unit, or {@code null} if none applies to the parent unit. Prefixes apply only
+     * to simple units, since a prefix before a product would be read as applying to its
+     * first element.
+     */
+    private String prefixSymbol() {
+        if (parent instanceof ProductUnit<?> || parent.equals(ONE) || !parent.equals(parent.getSystemUnit())) {
+            return null;
+        }
+        for (MetricPrefix prefix : MetricPrefix.values()) {
+            if (prefix.getConverter().equals(converter)) {
+                return prefix.getSymbol();
+            }
+        }
+        if (PackedDimension.INFORMATION.equals(parent.getDimension())) {
+            for (BinaryPrefix prefix : BinaryPrefix.values()) {
+                if (prefix.getConverter().equals(converter)) {
+                    return prefix.getSymbol();
+                }
+            }
+        }
+        return null;
+    }
+}
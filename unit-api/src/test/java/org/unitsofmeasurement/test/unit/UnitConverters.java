@@ -0,0 +1,239 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+/**
+ * Static helper methods for converting large arrays in parallel. The range to convert is
+ * split in contiguous slices, one per processor, each slice being converted by the bulk
+ * {@link UnitConverter#convert(double[], int, double[], int, int)} method. Ranges shorter
+ * than {@value #PARALLEL_THRESHOLD} values are converted in the calling thread, since the
+ * cost of dispatching tasks would exceed the gain.
+ *
+ * <p>The calling thread converts slices too, and takes over the slices which no worker has
+ * started by the time it is done, so these methods can be invoked from a task running in
+ * the same bounded executor without risk of deadlock.</p>
+ *
+ * [code]
+ *     UnitConverters.parallelConvert(converter, archive, 0, archive, 0, archive.length);
+ * [/code]
+ *
+ * @version 1.0
+ */
+public final class UnitConverters {
+    /**
+     * Minimal number of values for which a conversion is split over many threads.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private UnitConverters() {
+    }
+
+    /**
+     * The executor used when the caller does not supply one,
+     * created only when a parallel conversion is first requested.
+     */
+    private static final class DefaultExecutor {
+        static final ExecutorService INSTANCE = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                    public Thread newThread(Runnable task) {
+                        final Thread thread = new Thread(task, "UnitConverters worker"); //$NON-NLS-1$
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    /**
+     * Converts an array range using a shared pool of daemon threads.
+     *
+     * @param converter the converter to apply.
+     * @param src the array of values to convert.
+     * @param srcOff index of the first value to convert.
+     * @param dst the array where to store the converted values (may be {@code src}).
+     * @param dstOff index where to store the first converted value.
+     * @param length number of values to convert.
+     * @throws IndexOutOfBoundsException if a range is out of bounds.
+     */
+    public static void parallelConvert(UnitConverter converter, double[] src, int srcOff,
+            double[] dst, int dstOff, int length)
+    {
+        if (length < PARALLEL_THRESHOLD) {
+            converter.convert(src, srcOff, dst, dstOff, length);
+        } else {
+            parallelConvert(converter, src, srcOff, dst, dstOff, length, DefaultExecutor.INSTANCE);
+        }
+    }
+
+    /**
+     * Converts an array range using the given executor.
+     *
+     * @param converter the converter to apply.
+     * @param src the array of values to convert.
+     * @param srcOff index of the first value to convert.
+     * @param dst the array where to store the converted values (may be {@code src}).
+     * @param dstOff index where to store the first converted value.
+     * @param length number of values to convert.
+     * @param executor the executor whose threads help the calling thread.
+     * @throws IndexOutOfBoundsException if a range is out of bounds.
+     */
+    public static void parallelConvert(UnitConverter converter, double[] src, int srcOff,
+            double[] dst, int dstOff, int length, ExecutorService executor)
+    {
+        TestConverter.checkRange(src.length, srcOff, dst.length, dstOff, length);
+        split(converter, src, srcOff, dst, dstOff, length, sliceCount(src, srcOff, dst, dstOff, length), executor);
+    }
+
+    /**
+     * Converts a {@code float} array range using a shared pool of daemon threads.
+     *
+     * @param converter the converter to apply.
+     * @param src the array of values to convert.
+     * @param srcOff index of the first value to convert.
+     * @param dst the array where to store the converted values (may be {@code src}).
+     * @param dstOff index where to store the first converted value.
+     * @param length number of values to convert.
+     * @throws IndexOutOfBoundsException if a range is out of bounds.
+     */
+    public static void parallelConvert(UnitConverter converter, float[] src, int srcOff,
+            float[] dst, int dstOff, int length)
+    {
+        if (length < PARALLEL_THRESHOLD) {
+            converter.convert(src, srcOff, dst, dstOff, length);
+        } else {
+            parallelConvert(converter, src, srcOff, dst, dstOff, length, DefaultExecutor.INSTANCE);
+        }
+    }
+
+    /**
+     * Converts a {@code float} array range using the given executor.
+     *
+     * @param converter the converter to apply.
+     * @param src the array of values to convert.
+     * @param srcOff index of the first value to convert.
+     * @param dst the array where to store the converted values (may be {@code src}).
+     * @param dstOff index where to store the first converted value.
+     * @param length number of values to convert.
+     * @param executor the executor whose threads help the calling thread.
+     * @throws IndexOutOfBoundsException if a range is out of bounds.
+     */
+    public static void parallelConvert(UnitConverter converter, float[] src, int srcOff,
+            float[] dst, int dstOff, int length, ExecutorService executor)
+    {
+        TestConverter.checkRange(src.length, srcOff, dst.length, dstOff, length);
+        split(converter, src, srcOff, dst, dstOff, length, sliceCount(src, srcOff, dst, dstOff, length), executor);
+    }
+
+    /**
+     * Returns the number of slices in which to split the given range. Ranges shifted
+     * in place are not split, since a slice could overwrite values of another slice
+     * before they are read.
+     */
+    private static int sliceCount(Object src, int srcOff, Object dst, int dstOff, int length) {
+        if (src == dst && srcOff != dstOff && Math.abs(srcOff - dstOff) < length) {
+            return 1;
+        }
+        return Math.min(Runtime.getRuntime().availableProcessors(), length / (PARALLEL_THRESHOLD / 4));
+    }
+
+    /**
+     * Converts the given range of a {@code double[]} or {@code float[]} array.
+     */
+    static void convert(UnitConverter converter, Object src, int srcOff, Object dst, int dstOff, int length) {
+        if (src instanceof double[]) {
+            converter.convert((double[]) src, srcOff, (double[]) dst, dstOff, length);
+        } else {
+            converter.convert((float[]) src, srcOff, (float[]) dst, dstOff, length);
+        }
+    }
+
+    /**
+     * Converts the given range in the given number of slices. The calling thread and the
+     * executor tasks claim slices from a shared counter until none is left; tasks which have
+     * not started by then are cancelled, and the others are waited for before any failure
+     * is propagated, so no thread writes in {@code dst} after this method returns.
+     */
+    static void split(final UnitConverter converter, final Object src, final int srcOff,
+            final Object dst, final int dstOff, final int length, final int slices, ExecutorService executor)
+    {
+        if (slices <= 1) {
+            convert(converter, src, srcOff, dst, dstOff, length);
+            return;
+        }
+        final int size = length / slices;
+        final AtomicInteger next = new AtomicInteger();
+        final Runnable task = new Runnable() {
+            public void run() {
+                int i;
+                while ((i = next.getAndIncrement()) < slices) {
+                    final int start = i * size;
+                    final int n = (i == slices - 1) ? length - start : size;
+                    convert(converter, src, srcOff + start, dst, dstOff + start, n);
+                }
+            }
+        };
+        final List<Future<?>> futures = new ArrayList<Future<?>>(slices - 1);
+        for (int i = 1; i < slices; i++) {
+            futures.add(executor.submit(task));
+        }
+        Throwable failure = null;
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            failure = e;
+        } catch (Error e) {
+            failure = e;
+        }
+        next.set(slices);
+        for (Future<?> future : futures) {
+            future.cancel(false);
+        }
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                } catch (CancellationException e) {
+                    // Not started; its slices have been converted by other threads.
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    continue;                   // The task may still be writing in dst.
+                }
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+    }
+}
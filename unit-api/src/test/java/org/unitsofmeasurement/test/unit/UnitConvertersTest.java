@@ -0,0 +1,93 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.unitsofmeasurement.unit.UnitConverter;
+
+
+public class UnitConvertersTest {
+    private final UnitConverter inchToCm = new RationalConverter(254, 100);
+
+    @Test
+    public void testParallelConvert() {
+        final int n = UnitConverters.PARALLEL_THRESHOLD * 3 + 7;
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        UnitConverters.parallelConvert(inchToCm, values, 0, values, 0, n);
+        for (int i = 0; i < n; i++) {
+            assertEquals(i * 2.54, values[i], 1e-9 * i);
+        }
+    }
+
+    @Test
+    public void testParallelConvertShifted() {
+        final int n = UnitConverters.PARALLEL_THRESHOLD * 2;
+        float[] values = new float[n + 1];
+        for (int i = 0; i < n; i++) {
+            values[i] = 1;
+        }
+        UnitConverters.parallelConvert(inchToCm, values, 0, values, 1, n);
+        assertEquals(1f, values[0], 0f);
+        assertEquals(2.54f, values[n], 1e-6f);
+    }
+
+    @Test
+    public void testSplitInSameExecutor() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final double[] values = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+            final Future<?> outer = executor.submit(new Runnable() {
+                public void run() {
+                    UnitConverters.split(inchToCm, values, 0, values, 0, values.length, 4, executor);
+                }
+            });
+            outer.get();
+            for (int i = 0; i < values.length; i++) {
+                assertEquals((i + 1) * 2.54, values[i], 1e-12);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSplitFailure() {
+        final UnitConverter failing = new MultiplyConverter(2) {
+            @Override
+            public void convert(double[] src, int srcOff, double[] dst, int dstOff, int length) {
+                if (srcOff == 2) {
+                    throw new IllegalStateException("slice"); //$NON-NLS-1$
+                }
+                super.convert(src, srcOff, dst, dstOff, length);
+            }
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final double[] values = {1, 1, 1, 1, 1, 1, 1, 1};
+            try {
+                UnitConverters.split(failing, values, 0, values, 0, values.length, 4, executor);
+                fail("Expected the slice failure"); //$NON-NLS-1$
+            } catch (IllegalStateException e) {
+                assertEquals("slice", e.getMessage()); //$NON-NLS-1$
+            }
+            assertEquals(1, values[2], 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
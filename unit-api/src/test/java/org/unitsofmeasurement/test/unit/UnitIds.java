@@ -0,0 +1,91 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.unit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Assigns dense integer identifiers to the units used as elements of
+ * {@linkplain ProductUnit product units}. Identifiers are allocated in registration order,
+ * starting at zero, and equal units share the same identifier.
+ *
+ * <p>Registered units are pinned by design: they are strongly referenced for the lifetime
+ * of the class loader and their identifiers are never reused, because identifiers are
+ * embedded in the vectors of interned products and cached conversion tables, which would
+ * silently designate another unit if a collected unit's identifier were recycled. Only the
+ * element units of products are registered, usually the small fixed set of named units, so
+ * the table does not grow with the number of products. Applications creating unbounded
+ * numbers of distinct scaled or transformed units and multiplying them should keep those
+ * units in a bounded set.</p>
+ *
+ * @version 1.0
+ */
+public final class UnitIds {
+    private static final ConcurrentMap<TestUnit<?>, Integer> IDS = new ConcurrentHashMap<TestUnit<?>, Integer>();
+
+    /**
+     * The units indexed by identifier. The array is replaced by a longer copy on each
+     * registration, under the {@link #LOCK}, so that lookups can read it without locking.
+     */
+    private static volatile TestUnit<?>[] units = new TestUnit<?>[0];
+
+    /**
+     * Guards registrations.
+     */
+    private static final Object LOCK = new Object();
+
+    private UnitIds() {
+    }
+
+    /**
+     * Returns the identifier of the given unit, registering the unit if needed.
+     *
+     * @param unit the unit for which to get the identifier.
+     * @return the identifier of the given unit.
+     */
+    public static int getId(TestUnit<?> unit) {
+        Integer id = IDS.get(unit);
+        if (id == null) {
+            synchronized (LOCK) {
+                id = IDS.get(unit);
+                if (id == null) {
+                    final TestUnit<?>[] old = units;
+                    final TestUnit<?>[] grown = new TestUnit<?>[old.length + 1];
+                    System.arraycopy(old, 0, grown, 0, old.length);
+                    grown[old.length] = unit;
+                    units = grown;                      // Publish before the identifier.
+                    id = old.length;
+                    IDS.put(unit, id);
+                }
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Returns the unit registered with the given identifier.
+     *
+     * @param id the unit identifier.
+     * @return the unit registered with the given identifier.
+     * @throws IndexOutOfBoundsException if no unit has this identifier.
+     */
+    public static TestUnit<?> getUnit(int id) {
+        return units[id];
+    }
+
+    /**
+     * Returns the number of registered units, which is also the next identifier to be assigned.
+     *
+     * @return the number of registered units.
+     */
+    public static int size() {
+        return units.length;
+    }
+}
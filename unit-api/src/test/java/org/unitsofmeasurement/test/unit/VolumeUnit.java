@@ -7,6 +7,7 @@
  */
 package org.unitsofmeasurement.test.unit;
 
+import org.unitsofmeasurement.unit.Dimension;
 import org.unitsofmeasurement.unit.Unit;
 import org.unitsofmeasurement.quantity.Volume;
 
@@ -15,6 +16,8 @@ import org.unitsofmeasurement.quantity.Volume;
  * @author paul.morrison
  */
 public class VolumeUnit extends TestUnit<Volume> {
+
+    private static final Dimension DIMENSION = PackedDimension.LENGTH.pow(3);
     public static final VolumeUnit cumetre = new VolumeUnit("cumetre", 1.0); // reference Unit
     public static final VolumeUnit REF_UNIT = cumetre; // reference Unit
     public static final VolumeUnit cumile = new VolumeUnit("cumile", 1609.0 * 1609.0 * 1609.0);
@@ -31,4 +34,9 @@ public class VolumeUnit extends TestUnit<Volume> {
     public Unit<Volume> getSystemUnit() {
         return REF_UNIT;
     }
+
+    @Override
+    public Dimension getDimension() {
+        return DIMENSION;
+    }
 }
@@ -0,0 +1,261 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A concurrent cache holding at most a fixed number of entries. Lookups never block.
+ * An insertion first reserves a slot with an atomic increment of the size, so the size
+ * never exceeds the capacity even under concurrent insertions; when the cache is full,
+ * the inserting thread evicts entries according to the {@linkplain Policy policy} given
+ * at construction until it can reserve a slot.
+ *
+ * <p>Entries are kept in a queue in insertion order, whose head is the hand of the clock:
+ * with the default {@link Policy#CLOCK} policy, an entry read since the hand last passed
+ * over it gets a second chance and is moved to the tail. This is an approximation of LRU
+ * eviction which does not need to reorder entries on every hit.</p>
+ *
+ * <p>The cache counts hits and misses, so callers can check that the capacity suits
+ * their working set.</p>
+ *
+ * @param <K> the type of keys.
+ * @param <V> the type of cached values.
+ *
+ * @version 1.0
+ */
+public class BoundedCache<K, V> {
+    /**
+     * The eviction policies.
+     */
+    public static enum Policy {
+        /**
+         * Evicts the oldest entry which has not been read since the hand last passed over it.
+         */
+        CLOCK,
+
+        /**
+         * Evicts the oldest entry. Lookups do not write anything in the cache.
+         */
+        FIFO
+    }
+
+    private final ConcurrentHashMap<K, Entry<K, V>> map;
+    private final int capacity;
+    private final Policy policy;
+
+    /**
+     * The entries in insertion order, or in the order the clock hand has put them back.
+     */
+    private final ConcurrentLinkedQueue<Entry<K, V>> queue = new ConcurrentLinkedQueue<Entry<K, V>>();
+
+    /**
+     * Number of slots reserved, never greater than {@link #capacity}.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * A cached value together with its "recently used" flag.
+     */
+    private static final class Entry<K, V> {
+        final K key;
+        final V value;
+        volatile boolean referenced;
+
+        Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Creates a cache holding at most the given number of entries, with the
+     * {@link Policy#CLOCK} eviction policy.
+     *
+     * @param capacity the maximal number of entries.
+     * @throws IllegalArgumentException if the capacity is not strictly positive.
+     */
+    public BoundedCache(int capacity) {
+        this(capacity, Policy.CLOCK);
+    }
+
+    /**
+     * Creates a cache holding at most the given number of entries.
+     *
+     * @param capacity the maximal number of entries.
+     * @param policy the eviction policy.
+     * @throws IllegalArgumentException if the capacity is not strictly positive or the policy is null.
+     */
+    public BoundedCache(int capacity, Policy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity: " + capacity); //$NON-NLS-1$
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("policy is null"); //$NON-NLS-1$
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        map = new ConcurrentHashMap<K, Entry<K, V>>(Math.min(capacity, 1 << 12) * 4 / 3 + 1);
+    }
+
+    /**
+     * Returns the value cached for the given key, or {@code null} if none. The key
+     * does not need to be of type {@code K}; it only needs to be equal to, and have
+     * the same hash code than, the key the value has been {@linkplain #put put} with.
+     *
+     * @param key the key to look for.
+     * @return the cached value, or {@code null} if none.
+     */
+    public V get(Object key) {
+        final Entry<K, V> entry = map.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (policy == Policy.CLOCK && !entry.referenced) {
+            entry.referenced = true;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Caches the given value unless another thread cached a value for the same key
+     * first, in which case that other value is returned.
+     *
+     * @param key the key of the value to cache.
+     * @param value the value to cache.
+     * @return the value now cached for the given key.
+     */
+    public V put(K key, V value) {
+        final Entry<K, V> cached = map.get(key);
+        if (cached != null) {
+            return cached.value;
+        }
+        reserve();
+        final Entry<K, V> entry = new Entry<K, V>(key, value);
+        final Entry<K, V> old = map.putIfAbsent(key, entry);
+        if (old != null) {
+            size.decrementAndGet();
+            return old.value;
+        }
+        queue.offer(entry);
+        return value;
+    }
+
+    /**
+     * Reserves a slot for a new entry, evicting entries until one is free.
+     */
+    private void reserve() {
+        while (true) {
+            final int n = size.get();
+            if (n < capacity) {
+                if (size.compareAndSet(n, n + 1)) {
+                    return;
+                }
+            } else {
+                evictOne();
+            }
+        }
+    }
+
+    /**
+     * Advances the clock hand by one entry, evicting it unless it gets a second chance.
+     */
+    private void evictOne() {
+        final Entry<K, V> entry = queue.poll();
+        if (entry == null) {
+            // All slots are reserved by insertions not yet queued.
+            Thread.yield();
+        } else if (entry.referenced) {
+            entry.referenced = false;
+            queue.offer(entry);
+        } else if (map.remove(entry.key, entry)) {
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the eviction policy.
+     *
+     * @return the policy given at construction.
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Removes all entries and resets the counters.
+     */
+    public void clear() {
+        map.clear();
+        queue.clear();
+        size.set(0);
+        hits.set(0);
+        misses.set(0);
+    }
+
+    /**
+     * Returns the number of entries currently in this cache.
+     *
+     * @return the number of cached entries.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Returns the maximal number of entries.
+     *
+     * @return the capacity of this cache.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of lookups which found a value.
+     *
+     * @return the hit count.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups which did not find a value.
+     *
+     * @return the miss count.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the ratio of lookups which found a value, or 0 if there was no lookup.
+     *
+     * @return the hit ratio, between 0 and 1.
+     */
+    public double getHitRatio() {
+        final long h = hits.get();
+        final long total = h + misses.get();
+        return (total != 0) ? (double) h / total : 0;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[size=" + size() + ", capacity=" + capacity
+                + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ']';
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.util;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.ParsePosition;
+
+import org.unitsofmeasurement.unit.Unit;
+import org.unitsofmeasurement.unit.UnitFormat;
+
+
+/**
+ * A unit format remembering the units parsed by another format. The cache is keyed by the
+ * parsed text and holds at most a fixed number of entries. Lookups probe the cache with the
+ * characters to parse in place, so parsing a known text does not create any {@code String}.
+ *
+ * <p>A text is cached only when the whole text, or the whole remainder after the cursor,
+ * has been parsed. Texts which fail to parse are not cached.</p>
+ *
+ * @version 1.0
+ */
+public class CachingUnitFormat implements UnitFormat {
+    /**
+     * The lookup key of each thread, reused for every probe.
+     */
+    private static final ThreadLocal<CharSequenceKey> PROBE = new ThreadLocal<CharSequenceKey>() {
+        @Override
+        protected CharSequenceKey initialValue() {
+            return new CharSequenceKey();
+        }
+    };
+
+    private final UnitFormat format;
+    private final BoundedCache<String, Unit<?>> cache;
+
+    /**
+     * Creates a format caching the units parsed by the given format.
+     *
+     * @param format the format to delegate to.
+     * @param capacity the maximal number of cached texts.
+     */
+    public CachingUnitFormat(UnitFormat format, int capacity) {
+        this.format = format;
+        this.cache = new BoundedCache<String, Unit<?>>(capacity);
+    }
+
+    /**
+     * Returns the format this format delegates to.
+     *
+     * @return the underlying format.
+     */
+    public UnitFormat getFormat() {
+        return format;
+    }
+
+    public Appendable format(Unit<?> unit, Appendable appendable) throws IOException {
+        return format.format(unit, appendable);
+    }
+
+    /**
+     * Returns the unit cached for the given slice, or {@code null} if none.
+     */
+    private Unit<?> lookup(CharSequence csq, int start, int end) {
+        final CharSequenceKey key = PROBE.get();
+        try {
+            return cache.get(key.set(csq, start, end));
+        } finally {
+            key.clear();
+        }
+    }
+
+    public Unit<?> parse(CharSequence csq, ParsePosition cursor) throws ParseException {
+        final int start = (cursor != null) ? cursor.getIndex() : 0;
+        final int end = csq.length();
+        final Unit<?> cached = lookup(csq, start, end);
+        if (cached != null) {
+            if (cursor != null) {
+                cursor.setIndex(end);
+            }
+            return cached;
+        }
+        final Unit<?> unit = format.parse(csq, cursor);
+        if (cursor == null || cursor.getIndex() == end) {
+            return cache.put(csq.subSequence(start, end).toString(), unit);
+        }
+        return unit;
+    }
+
+    /**
+     * Parses the given slice of a character sequence, which must be a whole unit expression.
+     * On a cache hit, no object is created.
+     *
+     * @param csq the characters to parse.
+     * @param start index of the first character to parse, inclusive.
+     * @param end index of the last character to parse, exclusive.
+     * @return the parsed unit.
+     * @throws ParseException if the slice is not a unit expression.
+     */
+    public Unit<?> parse(CharSequence csq, int start, int end) throws ParseException {
+        final Unit<?> cached = lookup(csq, start, end);
+        if (cached != null) {
+            return cached;
+        }
+        final String text = csq.subSequence(start, end).toString();
+        final Unit<?> unit;
+        try {
+            unit = format.parse(text, null);
+        } catch (ParseException e) {
+            final ParseException shifted = new ParseException(e.getMessage(), start + e.getErrorOffset());
+            shifted.initCause(e);
+            throw shifted;
+        }
+        return cache.put(text, unit);
+    }
+
+    /**
+     * Returns the ratio of parsed texts which were found in the cache.
+     *
+     * @return the hit ratio, between 0 and 1.
+     */
+    public double getHitRatio() {
+        return cache.getHitRatio();
+    }
+
+    /**
+     * Returns the number of parsed texts which were found in the cache.
+     *
+     * @return the hit count.
+     */
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    /**
+     * Returns the number of parsed texts which were not found in the cache.
+     *
+     * @return the miss count.
+     */
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + '[' + format + ", " + cache + ']';
+    }
+}
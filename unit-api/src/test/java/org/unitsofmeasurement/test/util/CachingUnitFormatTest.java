@@ -0,0 +1,84 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.CharBuffer;
+import java.text.ParseException;
+import java.text.ParsePosition;
+
+import org.junit.Test;
+import org.unitsofmeasurement.test.unit.DistanceUnit;
+import org.unitsofmeasurement.test.unit.TimeUnit;
+import org.unitsofmeasurement.unit.Unit;
+
+
+public class CachingUnitFormatTest {
+    private final CachingUnitFormat format = (CachingUnitFormat) new TestUnitFormatService(16).getUnitFormat("UCUM");
+
+    @Test
+    public void testSliceProbe() throws ParseException {
+        final Unit<?> speed = format.parse("km/h", null);
+        assertEquals(DistanceUnit.km.divide(TimeUnit.h), speed);
+        assertEquals(0, format.getHitCount());
+        final CharBuffer row = CharBuffer.wrap("12.5,km/h,3");
+        assertSame(speed, format.parse(row, 5, 9));
+        assertSame(speed, format.parse(new StringBuilder("km/h"), null));
+        assertEquals(2, format.getHitCount());
+        assertEquals(2.0 / 3, format.getHitRatio(), 1e-12);
+    }
+
+    @Test
+    public void testCursor() throws ParseException {
+        final ParsePosition position = new ParsePosition(2);
+        assertSame(DistanceUnit.m, format.parse("= m", position));
+        assertEquals(3, position.getIndex());
+        position.setIndex(2);
+        assertSame(DistanceUnit.m, format.parse("= m", position));
+        assertEquals(3, position.getIndex());
+        assertEquals(1, format.getHitCount());
+        position.setIndex(0);
+        format.parse("m, s", position);
+        assertEquals(1, position.getIndex());
+    }
+
+    @Test
+    public void testErrorsNotCached() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                format.parse("xx,foo", 3, 6);
+                throw new AssertionError("Expected ParseException");
+            } catch (ParseException e) {
+                assertEquals(3, e.getErrorOffset());
+            }
+        }
+        assertEquals(0, format.getHitCount());
+    }
+
+    @Test
+    public void testService() {
+        final TestUnitFormatService service = new TestUnitFormatService();
+        assertTrue(service.getUnitFormatNames().contains("UCUM"));
+        assertFalse(service.getUnitFormat() instanceof CachingUnitFormat);
+        assertNull(service.getUnitFormat("unknown"));
+    }
+
+    @Test
+    public void testProbeKey() {
+        final CharSequenceKey key = new CharSequenceKey().set("[km]", 1, 3);
+        assertEquals("km".hashCode(), key.hashCode());
+        assertTrue(key.equals("km"));
+        assertFalse(key.equals("kb"));
+        assertFalse(key.equals("k"));
+    }
+}
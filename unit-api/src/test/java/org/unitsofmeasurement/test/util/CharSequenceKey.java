@@ -0,0 +1,82 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.util;
+
+
+/**
+ * A reusable lookup key for a slice of a {@code CharSequence}, for probing hash maps whose
+ * keys are {@code String}s without creating a {@code String}. The hash code is the one
+ * {@link String#hashCode()} would compute for the same characters, and {@link #equals(Object)}
+ * compares characters with any {@code CharSequence}.
+ *
+ * <p>The relation is not symmetric ({@code String.equals} does not know this class), so
+ * this key must only be the argument of lookups, never be stored in a map. Instances are
+ * mutable and not thread-safe.</p>
+ *
+ * @version 1.0
+ */
+final class CharSequenceKey {
+    private CharSequence text;
+    private int start, length, hash;
+
+    /**
+     * Makes this key represent the given slice.
+     *
+     * @param text the characters.
+     * @param start index of the first character, inclusive.
+     * @param end index of the last character, exclusive.
+     * @return this key.
+     */
+    CharSequenceKey set(CharSequence text, int start, int end) {
+        this.text = text;
+        this.start = start;
+        this.length = end - start;
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + text.charAt(i);
+        }
+        hash = h;
+        return this;
+    }
+
+    /**
+     * Releases the reference to the characters, so the key does not retain a large buffer.
+     */
+    void clear() {
+        text = null;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof CharSequence)) {
+            return false;
+        }
+        final CharSequence other = (CharSequence) obj;
+        if (other.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (other.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return text.subSequence(start, start + length).toString();
+    }
+}
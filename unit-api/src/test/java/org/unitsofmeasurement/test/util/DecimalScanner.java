@@ -0,0 +1,154 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.util;
+
+
+/**
+ * Parses decimal numbers such as {@code "-12.5"} or {@code "3e8"} directly from a
+ * {@code CharSequence}. Numbers whose significant digits form an integer mantissa not
+ * greater than 2<sup>53</sup>, with a decimal exponent between -22 and 22, are computed
+ * exactly from that mantissa and a table of powers of ten, without creating any object;
+ * other numbers are delegated to {@link Double#parseDouble(String)}. Infinities are read
+ * in the {@code "Infinity"} form written by {@link Double#toString(double)}.
+ *
+ * <p>Instances hold the last parsed value and are not thread-safe.</p>
+ *
+ * @version 1.0
+ */
+final class DecimalScanner {
+    /**
+     * Powers of ten which are exact as {@code double}.
+     */
+    private static final double[] POW10 = new double[23];
+    static {
+        double p = 1;
+        for (int i = 0; i < POW10.length; i++) {
+            POW10[i] = p;
+            p *= 10;
+        }
+    }
+
+    /**
+     * Largest integer up to which all integers are exact as {@code double}.
+     */
+    private static final long MAX_EXACT = 1L << 53;
+
+    /**
+     * Maximal number of significant digits accumulated in a {@code long}.
+     */
+    private static final int MAX_DIGITS = 19;
+
+    /**
+     * The text of an infinite value, after its optional sign.
+     */
+    private static final String INFINITY = "Infinity"; //$NON-NLS-1$
+
+    /**
+     * The value of the last number parsed by {@link #scan}.
+     */
+    double value;
+
+    /**
+     * Parses a decimal number, stores it in {@link #value} and returns the index after it,
+     * or {@code start} if there is no number at that index.
+     */
+    int scan(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = (text.charAt(i++) == '-');
+        }
+        if (startsWith(text, i, end, INFINITY)) {
+            value = negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            return i + INFINITY.length();
+        }
+        long mantissa = 0;
+        int digits = 0;             // Significant digits accumulated in the mantissa.
+        int exponent = 0;           // Decimal exponent to apply to the mantissa.
+        boolean any = false;        // Whether at least one digit was found.
+        boolean truncated = false;  // Whether some non-zero digits were dropped.
+        boolean fraction = false;
+        for (; i < end; i++) {
+            final char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                any = true;
+                if (digits < MAX_DIGITS) {
+                    if (mantissa != 0 || c != '0') {
+                        mantissa = mantissa * 10 + (c - '0');
+                        digits++;
+                    }
+                    if (fraction) {
+                        exponent--;
+                    }
+                } else {
+                    truncated |= (c != '0');
+                    if (!fraction) {
+                        exponent++;
+                    }
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (!any) {
+            return start;
+        }
+        if (i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            int j = i + 1;
+            boolean negativeExponent = false;
+            if (j < end && (text.charAt(j) == '-' || text.charAt(j) == '+')) {
+                negativeExponent = (text.charAt(j++) == '-');
+            }
+            int e = 0;
+            final int first = j;
+            for (; j < end; j++) {
+                final char c = text.charAt(j);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                if (e < 100000) {
+                    e = e * 10 + (c - '0');
+                }
+            }
+            if (j != first) {
+                exponent += negativeExponent ? -e : e;
+                i = j;
+            }
+        }
+        double v;
+        if (!truncated && mantissa <= MAX_EXACT && exponent >= -22 && exponent <= 22) {
+            v = mantissa;
+            v = (exponent >= 0) ? v * POW10[exponent] : v / POW10[-exponent];
+        } else if (mantissa == 0) {
+            v = 0;
+        } else {
+            v = Double.parseDouble(text.subSequence(negative ? start + 1 : start, i).toString());
+            v = Math.abs(v);
+        }
+        value = negative ? -v : v;
+        return i;
+    }
+
+    /**
+     * Returns whether the given text has the given prefix at the given index.
+     */
+    private static boolean startsWith(CharSequence text, int start, int end, String prefix) {
+        final int length = prefix.length();
+        if (end - start < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,316 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.unitsofmeasurement.test.unit.ConversionMatrix;
+import org.unitsofmeasurement.unit.Unit;
+import org.unitsofmeasurement.unit.UnitFormat;
+
+
+/**
+ * Scans quantities such as {@code "12.5 km"} or {@code "3e8 m/s"} from a {@link CharBuffer}
+ * or from UTF-8 bytes in a {@link ByteBuffer}, including a {@link java.nio.MappedByteBuffer},
+ * and stores their values and the {@linkplain ConversionMatrix#getId unit identifiers} of
+ * their units in parallel primitive arrays. The columns can then be converted in bulk with
+ * {@link ConversionMatrix#convert(double[], int[], int, double[], int, int, int)}.
+ *
+ * <p>Quantities are separated by white space, {@code ','} or {@code ';'}. A quantity is a
+ * number, optionally followed by spaces and a unit expression; a number without unit is
+ * dimensionless. The buffers are scanned in place: numbers whose digits form a mantissa
+ * not greater than 2<sup>53</sup>, with a decimal exponent between -22 and 22, are
+ * computed exactly from their digits, and each
+ * distinct unit text is parsed by the {@link UnitFormat} only once, then found again by a
+ * hash lookup on the characters, so the common path creates no object.</p>
+ *
+ * <p>Instances keep the resolved unit texts and are not thread-safe.</p>
+ *
+ * @version 1.0
+ */
+public class QuantityParser {
+    private final UnitFormat format;
+    private final ConversionMatrix matrix;
+
+    /**
+     * The identifier of each unit text seen so far, probed with {@link #key}.
+     */
+    private final Map<Object, Integer> ids = new HashMap<Object, Integer>();
+
+    /**
+     * Reusable lookup key for unit texts.
+     */
+    private final CharSequenceKey key = new CharSequenceKey();
+
+    /**
+     * Reusable view of the bytes being scanned.
+     */
+    private final Bytes bytes = new Bytes();
+
+    /**
+     * Characters decoded from non-ASCII unit texts, and a view over them.
+     */
+    private char[] decoded = new char[32];
+    private CharBuffer decodedView = CharBuffer.wrap(decoded);
+
+    /**
+     * Number of quantities stored by the last {@link #scan}.
+     */
+    private int count;
+
+    /**
+     * Scanner for the numbers.
+     */
+    private final DecimalScanner numbers = new DecimalScanner();
+
+    /**
+     * A read-only view of the remaining bytes of a buffer as ISO-8859-1 characters,
+     * so that ASCII numbers, separators and unit texts are scanned without decoding.
+     */
+    private static final class Bytes implements CharSequence {
+        ByteBuffer buffer;
+        int base, length;
+
+        Bytes wrap(ByteBuffer buffer) {
+            this.buffer = buffer;
+            base = buffer.position();
+            length = buffer.remaining();
+            return this;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public char charAt(int index) {
+            return (char) (buffer.get(base + index) & 0xFF);
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            final StringBuilder buffer = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                buffer.append(charAt(i));
+            }
+            return buffer;
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length).toString();
+        }
+    }
+
+    /**
+     * Creates a parser resolving units with the given format, and identifying them by their
+     * identifier in the given matrix.
+     *
+     * @param format the format for parsing unit texts.
+     * @param matrix the matrix giving the unit identifiers.
+     */
+    public QuantityParser(UnitFormat format, ConversionMatrix matrix) {
+        this.format = format;
+        this.matrix = matrix;
+    }
+
+    /**
+     * Parses quantities from the given characters, starting at the buffer position.
+     * On return, the buffer position is after the last parsed quantity and its separators.
+     *
+     * <p>If an invalid quantity is found after some quantities have been parsed, parsing stops
+     * before it and the number of quantities parsed so far is returned; the next invocation
+     * then throws the exception.</p>
+     *
+     * @param in the characters to parse.
+     * @param values where to store the values.
+     * @param unitIds where to store the unit identifiers, indexed like {@code values}.
+     * @param offset index where to store the first quantity.
+     * @param length maximal number of quantities to parse.
+     * @return the number of quantities parsed, 0 if the buffer has no more quantity.
+     * @throws ParseException if the first quantity is invalid. The error offset is an absolute
+     *         index in the buffer, and the buffer position is unchanged.
+     */
+    public int parse(CharBuffer in, double[] values, int[] unitIds, int offset, int length) throws ParseException {
+        final int base = in.position();
+        final int end = scan(in, base, false, values, unitIds, offset, length);
+        in.position(base + end);
+        return count;
+    }
+
+    /**
+     * Parses quantities from UTF-8 bytes, starting at the buffer position. This method works
+     * directly on the bytes, which makes it suitable for memory-mapped files. The contract is
+     * the same as for {@linkplain #parse(CharBuffer, double[], int[], int, int) characters},
+     * with offsets counted in bytes.
+     *
+     * @param in the UTF-8 bytes to parse.
+     * @param values where to store the values.
+     * @param unitIds where to store the unit identifiers, indexed like {@code values}.
+     * @param offset index where to store the first quantity.
+     * @param length maximal number of quantities to parse.
+     * @return the number of quantities parsed, 0 if the buffer has no more quantity.
+     * @throws ParseException if the first quantity is invalid.
+     */
+    public int parse(ByteBuffer in, double[] values, int[] unitIds, int offset, int length) throws ParseException {
+        final int base = in.position();
+        try {
+            final int end = scan(bytes.wrap(in), base, true, values, unitIds, offset, length);
+            in.position(base + end);
+        } finally {
+            bytes.buffer = null;
+        }
+        return count;
+    }
+
+    /**
+     * Parses up to {@code length} quantities, stores their number in {@link #count} and
+     * returns the index after the last one.
+     */
+    private int scan(CharSequence text, int base, boolean utf8, double[] values, int[] unitIds, int offset, int length)
+            throws ParseException
+    {
+        if (offset < 0 || length < 0 || offset + length > values.length || offset + length > unitIds.length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        count = 0;
+        final int end = text.length();
+        int pos = skipSeparators(text, 0, end);
+        while (count < length && pos < end) {
+            final int start = pos;
+            final int numberEnd = numbers.scan(text, pos, end);
+            if (numberEnd == pos) {
+                return fail(start, base, "Expected a number at index "); //$NON-NLS-1$
+            }
+            final double number = numbers.value;
+            pos = numberEnd;
+            while (pos < end && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) {
+                pos++;
+            }
+            int unitStart = pos;
+            if (pos < end && isNumberStart(text.charAt(pos))) {
+                unitStart = pos = numberEnd;            // Next quantity, dimensionless.
+            }
+            int unitEnd = unitStart;
+            while (unitEnd < end && !isSeparator(text.charAt(unitEnd))) {
+                unitEnd++;
+            }
+            final int id = unitId(text, unitStart, unitEnd, utf8);
+            if (id < 0) {
+                return fail(start, base, "Unknown unit at index "); //$NON-NLS-1$
+            }
+            values[offset + count] = number;
+            unitIds[offset + count] = id;
+            count++;
+            pos = skipSeparators(text, unitEnd, end);
+        }
+        return pos;
+    }
+
+    /**
+     * Throws a parse exception for the quantity at the given index if it is the first one,
+     * otherwise returns the index so that parsing stops before it.
+     */
+    private int fail(int start, int base, String message) throws ParseException {
+        if (count == 0) {
+            throw new ParseException(message + (base + start), base + start);
+        }
+        return start;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == ',' || c == ';' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static boolean isNumberStart(char c) {
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.';
+    }
+
+    private static int skipSeparators(CharSequence text, int pos, int end) {
+        while (pos < end && isSeparator(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Returns the identifier of the unit written in the given slice, or -1 if the unit can
+     * not be parsed or is not in the matrix.
+     */
+    private int unitId(CharSequence text, int start, int end, boolean utf8) {
+        CharSequence csq = text;
+        int from = start, to = end;
+        if (utf8) {
+            for (int i = start; i < end; i++) {
+                if (text.charAt(i) >= 0x80) {
+                    to = decode(text, start, end);
+                    decodedView.clear();
+                    decodedView.limit(to);
+                    csq = decodedView;
+                    from = 0;
+                    break;
+                }
+            }
+        }
+        Integer id = ids.get(key.set(csq, from, to));
+        key.clear();
+        if (id == null) {
+            Unit<?> unit;
+            final String symbol = csq.subSequence(from, to).toString();
+            try {
+                unit = format.parse(symbol, null);
+            } catch (ParseException e) {
+                unit = null;
+            }
+            id = (unit != null) ? matrix.getId(unit) : -1;
+            if (id >= 0) {
+                ids.put(symbol, id);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Decodes the given UTF-8 bytes, exposed as ISO-8859-1 characters, into {@link #decoded}
+     * and returns the number of characters. Malformed sequences, and characters outside the
+     * Basic Multilingual Plane, become U+FFFD.
+     */
+    private int decode(CharSequence text, int start, int end) {
+        if (decoded.length < end - start) {
+            decoded = new char[end - start];
+            decodedView = CharBuffer.wrap(decoded);
+        }
+        int n = 0;
+        for (int i = start; i < end;) {
+            final int b = text.charAt(i++);
+            int code;
+            int more;
+            if (b < 0x80) {
+                code = b; more = 0;
+            } else if ((b & 0xE0) == 0xC0) {
+                code = b & 0x1F; more = 1;
+            } else if ((b & 0xF0) == 0xE0) {
+                code = b & 0x0F; more = 2;
+            } else {
+                code = 0xFFFD; more = 0;
+            }
+            for (; more > 0; more--) {
+                if (i < end && (text.charAt(i) & 0xC0) == 0x80) {
+                    code = (code << 6) | (text.charAt(i++) & 0x3F);
+                } else {
+                    code = 0xFFFD;
+                    break;
+                }
+            }
+            decoded[n++] = (char) code;
+        }
+        return n;
+    }
+}
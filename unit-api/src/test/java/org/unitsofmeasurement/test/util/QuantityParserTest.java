@@ -0,0 +1,130 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.unitsofmeasurement.quantity.Quantity;
+import org.unitsofmeasurement.test.unit.ConversionMatrix;
+import org.unitsofmeasurement.test.unit.DistanceUnit;
+import org.unitsofmeasurement.test.unit.TestSystemOfUnits;
+import org.unitsofmeasurement.test.unit.TestUnit;
+import org.unitsofmeasurement.test.unit.TimeUnit;
+import org.unitsofmeasurement.unit.Unit;
+
+
+public class QuantityParserTest {
+    private final ConversionMatrix matrix = new ConversionMatrix(TestSystemOfUnits.getInstance());
+    private final QuantityParser parser = new QuantityParser(new TrieFormat(TestSystemOfUnits.getInstance()), matrix);
+
+    @Test
+    public void testCharBuffer() throws ParseException {
+        final CharBuffer in = CharBuffer.wrap("12.5 km, 3e2 cm;-0.25mile\n7 h 42");
+        final double[] values = new double[8];
+        final int[] ids = new int[8];
+        assertEquals(5, parser.parse(in, values, ids, 1, 7));
+        assertEquals(0, in.remaining());
+        assertArrayEquals(new double[] {0, 12.5, 300, -0.25, 7, 42, 0, 0}, values, 0);
+        assertArrayEquals(new int[] {0, matrix.getId(DistanceUnit.km), matrix.getId(DistanceUnit.cm),
+                matrix.getId(DistanceUnit.mile), matrix.getId(TimeUnit.h), matrix.getId(TestUnit.ONE), 0, 0}, ids);
+        assertEquals(0, parser.parse(in, values, ids, 0, 8));
+    }
+
+    @Test
+    public void testNumbers() throws ParseException {
+        final String[] texts = {"0.1", "1e-22", "123456789012345678901", "1.7976931348623157e308", "-.5", "4.9e-324"};
+        for (String text : texts) {
+            final double[] values = new double[1];
+            parser.parse(CharBuffer.wrap(text + " m"), values, new int[1], 0, 1);
+            assertEquals(text, Double.parseDouble(text), values[0], 0);
+        }
+    }
+
+    @Test
+    public void testLimit() throws ParseException {
+        final CharBuffer in = CharBuffer.wrap("1 m 2 m 3 m");
+        final double[] values = new double[2];
+        assertEquals(2, parser.parse(in, values, new int[2], 0, 2));
+        assertEquals("3 m", in.toString());
+        assertEquals(1, parser.parse(in, values, new int[2], 0, 2));
+        assertEquals(3, values[0], 0);
+    }
+
+    @Test
+    public void testErrors() throws ParseException {
+        final CharBuffer in = CharBuffer.wrap("1 m, 2 furlong");
+        assertEquals(1, parser.parse(in, new double[4], new int[4], 0, 4));
+        assertEquals(5, in.position());
+        try {
+            parser.parse(in, new double[4], new int[4], 0, 4);
+            throw new AssertionError("Expected ParseException");
+        } catch (ParseException e) {
+            assertEquals(5, e.getErrorOffset());
+            assertEquals(5, in.position());
+        }
+    }
+
+    @Test
+    public void testUtf8() throws ParseException, IOException {
+        final ByteBuffer in = ByteBuffer.wrap("2 m/s\u00B2;5 m\u00B7s".getBytes("UTF-8"));
+        final double[] values = new double[2];
+        final int[] ids = new int[2];
+        final Map<Class<? extends Quantity<?>>, Unit<?>> none = Collections.emptyMap();
+        final List<Unit<?>> units = new ArrayList<Unit<?>>();
+        units.add(DistanceUnit.m.divide(TimeUnit.s.pow(2)));
+        units.add(DistanceUnit.m.multiply(TimeUnit.s));
+        final ConversionMatrix derived = new ConversionMatrix(new TestSystemOfUnits("Derived", none, units));
+        final QuantityParser p = new QuantityParser(new TrieFormat(TestSystemOfUnits.getInstance()), derived);
+        assertEquals(2, p.parse(in, values, ids, 0, 2));
+        assertArrayEquals(new double[] {2, 5}, values, 0);
+        assertEquals(derived.getId(DistanceUnit.m.divide(TimeUnit.s.pow(2))), ids[0]);
+        assertEquals(derived.getId(DistanceUnit.m.multiply(TimeUnit.s)), ids[1]);
+    }
+
+    @Test
+    public void testMappedFile() throws ParseException, IOException {
+        final File file = File.createTempFile("quantities", ".txt");
+        try {
+            final FileOutputStream out = new FileOutputStream(file);
+            try {
+                out.write("1.5 km\n250 m\n".getBytes("UTF-8"));
+            } finally {
+                out.close();
+            }
+            final RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                final MappedByteBuffer in = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+                final double[] values = new double[2];
+                final int[] ids = new int[2];
+                assertEquals(2, parser.parse(in, values, ids, 0, 2));
+                matrix.convert(values, ids, 0, values, 0, 2, matrix.getId(DistanceUnit.m));
+                assertArrayEquals(new double[] {1500, 250}, values, 0);
+            } finally {
+                raf.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
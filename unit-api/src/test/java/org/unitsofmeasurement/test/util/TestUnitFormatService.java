@@ -0,0 +1,70 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.util;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+
+import org.unitsofmeasurement.service.UnitFormatService;
+import org.unitsofmeasurement.test.unit.TestSystemOfUnits;
+import org.unitsofmeasurement.unit.UnitFormat;
+
+
+/**
+ * Provides a {@link TrieFormat} over the {@linkplain TestSystemOfUnits test units} as the
+ * {@code "UCUM"} format, optionally behind a {@link CachingUnitFormat} so that repeated
+ * unit texts are resolved by a hash lookup instead of being parsed again.
+ *
+ * @version 1.0
+ */
+public class TestUnitFormatService implements UnitFormatService {
+    /**
+     * The name of the only format provided by this service.
+     */
+    private static final String UCUM = "UCUM"; //$NON-NLS-1$
+
+    private final UnitFormat format;
+
+    /**
+     * Creates a service whose format does not cache parsed units.
+     */
+    public TestUnitFormatService() {
+        this(0);
+    }
+
+    /**
+     * Creates a service whose format caches up to the given number of parsed texts.
+     *
+     * @param cacheCapacity the maximal number of cached texts, or 0 for no cache.
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public TestUnitFormatService(int cacheCapacity) {
+        if (cacheCapacity < 0) {
+            throw new IllegalArgumentException("cacheCapacity: " + cacheCapacity); //$NON-NLS-1$
+        }
+        final UnitFormat trie = new TrieFormat(TestSystemOfUnits.getInstance());
+        format = (cacheCapacity != 0) ? new CachingUnitFormat(trie, cacheCapacity) : trie;
+    }
+
+    public UnitFormat getUnitFormat() {
+        return format;
+    }
+
+    public UnitFormat getUnitFormat(String name) {
+        return UCUM.equalsIgnoreCase(name) ? format : null;
+    }
+
+    public UnitFormat getUnitFormat(Locale locale) {
+        return format;
+    }
+
+    public Set<String> getUnitFormatNames() {
+        return Collections.singleton(UCUM);
+    }
+}
@@ -0,0 +1,493 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.util;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.unitsofmeasurement.quantity.Quantity;
+import org.unitsofmeasurement.test.unit.BinaryPrefix;
+import org.unitsofmeasurement.test.unit.MetricPrefix;
+import org.unitsofmeasurement.test.unit.PackedDimension;
+import org.unitsofmeasurement.test.unit.TestUnit;
+import org.unitsofmeasurement.unit.IncommensurableException;
+import org.unitsofmeasurement.unit.SystemOfUnits;
+import org.unitsofmeasurement.unit.UnconvertibleException;
+import org.unitsofmeasurement.unit.Unit;
+
+
+/**
+ * Formats and parses units by their symbols. The symbols of the known units and of the
+ * {@linkplain MetricPrefix metric} and {@linkplain BinaryPrefix binary} prefixes are stored
+ * in two character tries built by the constructor, which the parser walks directly over the
+ * given {@code CharSequence}, without creating any intermediate {@code String}.
+ *
+ * <p>The parsed syntax is a sequence of terms separated by <code>'&middot;'</code>, {@code '.'} or
+ * {@code '*'} for multiplication and {@code '/'} for division, evaluated from left to right
+ * as in UCUM. A term is a unit symbol, optionally prefixed, or {@code "1"}, followed by an
+ * optional exponent written {@code ^-2}, {@code -2}, {@code 2} or with superscript digits:</p>
+ *
+ * [code]
+ *     kg&middot;m/s&sup2;     m.s-2     km^3     1/s     Kibit
+ * [/code]
+ *
+ * <p>Symbols are matched longest first, so {@code "mile"} is not read as milli-{@code "ile"};
+ * between a known symbol and a prefixed one of the same length, the known symbol wins.
+ * Metric prefixes apply to units which are their own system unit, binary prefixes only to
+ * those measuring information.</p>
+ *
+ * @version 1.0
+ */
+public class TrieFormat extends BaseFormat {
+    private static final long serialVersionUID = 4061436417311227573L;
+
+    /**
+     * All prefixes, metric ones first. A node of the prefix trie refers to its prefix
+     * by index in this array.
+     */
+    private static final Enum<?>[] PREFIXES;
+
+    /**
+     * Number of metric prefixes at the beginning of {@link #PREFIXES}.
+     */
+    private static final int METRIC_PREFIXES;
+    static {
+        final MetricPrefix[] metric = MetricPrefix.values();
+        final BinaryPrefix[] binary = BinaryPrefix.values();
+        METRIC_PREFIXES = metric.length;
+        PREFIXES = new Enum<?>[metric.length + binary.length];
+        System.arraycopy(metric, 0, PREFIXES, 0, metric.length);
+        System.arraycopy(binary, 0, PREFIXES, metric.length, binary.length);
+    }
+
+    /**
+     * Range of exponents accepted by the parser, which is the range of the exponent
+     * of each base dimension in a {@link PackedDimension}.
+     */
+    private static final int MIN_EXPONENT = PackedDimension.MIN_EXPONENT, MAX_EXPONENT = PackedDimension.MAX_EXPONENT;
+
+    /**
+     * Superscript digits from 0 to 9.
+     */
+    private static final String SUPERSCRIPTS = "\u2070\u00B9\u00B2\u00B3\u2074\u2075\u2076\u2077\u2078\u2079"; //$NON-NLS-1$
+
+    /**
+     * A node of a trie. Children are kept sorted by character for binary search.
+     */
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+
+        /**
+         * The unit whose symbol ends at this node, or {@code null}.
+         */
+        Unit<?> unit;
+
+        /**
+         * Whether {@link #unit} accepts metric or binary prefixes.
+         */
+        boolean metric, binary;
+
+        /**
+         * The prefixed units, created on first use, indexed like {@link #PREFIXES}.
+         */
+        AtomicReferenceArray<Unit<?>> prefixed;
+
+        /**
+         * Index in {@link #PREFIXES} of the prefix whose symbol ends at this node, or -1.
+         */
+        int prefix = -1;
+
+        Node child(char c) {
+            final int i = Arrays.binarySearch(keys, c);
+            return (i >= 0) ? children[i] : null;
+        }
+
+        Node add(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            i = ~i;
+            final int n = keys.length;
+            final char[] k = new char[n + 1];
+            final Node[] c2 = new Node[n + 1];
+            System.arraycopy(keys, 0, k, 0, i);
+            System.arraycopy(children, 0, c2, 0, i);
+            System.arraycopy(keys, i, k, i + 1, n - i);
+            System.arraycopy(children, i, c2, i + 1, n - i);
+            k[i] = c;
+            c2[i] = new Node();
+            keys = k;
+            children = c2;
+            return c2[i];
+        }
+
+        boolean accepts(int prefix) {
+            return (prefix < METRIC_PREFIXES) ? metric : binary;
+        }
+    }
+
+    /**
+     * The trie of unit symbols.
+     */
+    private final Node units = new Node();
+
+    /**
+     * The trie of prefix symbols.
+     */
+    private final Node prefixes = new Node();
+
+    /**
+     * Creates a format for all units of the given system.
+     *
+     * @param system the system of units to format and parse.
+     */
+    public TrieFormat(SystemOfUnits system) {
+        this(system.getUnits());
+    }
+
+    /**
+     * Creates a format for the given units. If two units have the same symbol,
+     * the first one is used for parsing.
+     *
+     * @param known the units to format and parse.
+     */
+    public TrieFormat(Collection<? extends Unit<?>> known) {
+        for (Unit<?> unit : known) {
+            final Node node = put(units, label(unit));
+            if (node.unit == null) {
+                node.unit = unit;
+                if (unit.equals(unit.getSystemUnit())) {
+                    node.metric = true;
+                    node.binary = PackedDimension.INFORMATION.equals(unit.getDimension());
+                    node.prefixed = new AtomicReferenceArray<Unit<?>>(PREFIXES.length);
+                }
+            }
+        }
+        for (int i = 0; i < PREFIXES.length; i++) {
+            final String symbol = (PREFIXES[i] instanceof MetricPrefix)
+                    ? ((MetricPrefix) PREFIXES[i]).getSymbol() : ((BinaryPrefix) PREFIXES[i]).getSymbol();
+            put(prefixes, symbol).prefix = i;
+        }
+    }
+
+    /**
+     * Returns the node for the given key, creating the missing nodes.
+     */
+    private static Node put(Node root, String key) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.add(key.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Returns the symbol of the given unit, or its name if it has no symbol.
+     */
+    private static String label(Unit<?> unit) {
+        final String symbol = unit.getSymbol();
+        if (symbol != null && symbol.length() != 0) {
+            return symbol;
+        }
+        if (unit instanceof TestUnit<?>) {
+            final String name = ((TestUnit<?>) unit).getName();
+            if (name != null) {
+                return name;
+            }
+        }
+        return unit.toString();
+    }
+
+    /**
+     * Formats the given unit as its symbol, or as the product of its elements with their
+     * exponents, for example <code>m&middot;s^-2</code>. The text of test units is rendered
+     * once and kept with the unit, so formatting them is a single {@code append} call
+     * after the elements have been checked against the symbol trie.
+     *
+     * @throws IllegalArgumentException if the text could not be parsed back to the same unit:
+     *         an element is not a known unit nor a prefixed one, for example a unit unknown
+     *         to this format or a prefix applied to a product, or an exponent is out of range.
+     */
+    public Appendable format(Unit<?> unit, Appendable appendable) throws IOException {
+        final Map<? extends Unit<?>, Integer> elements = unit.getProductUnits();
+        final boolean simple = elements == null || elements.isEmpty()
+                || (elements.size() == 1 && elements.containsKey(unit));
+        if (simple) {
+            if (!TestUnit.ONE.equals(unit)) {
+                checkParseable(unit, 1);
+            }
+        } else {
+            for (Map.Entry<? extends Unit<?>, Integer> entry : elements.entrySet()) {
+                checkParseable(entry.getKey(), entry.getValue());
+            }
+        }
+        if (unit instanceof TestUnit<?>) {
+            return appendable.append(unit.toString());
+        }
+        if (simple) {
+            return appendable.append(label(unit));
+        }
+        final StringBuilder buffer = new StringBuilder();
+        for (Map.Entry<? extends Unit<?>, Integer> entry : elements.entrySet()) {
+            if (buffer.length() != 0) {
+                buffer.append('\u00B7');
+            }
+            buffer.append(label(entry.getKey()));
+            final int n = entry.getValue();
+            if (n != 1) {
+                buffer.append('^').append(n);
+            }
+        }
+        return appendable.append(buffer);
+    }
+
+    /**
+     * Verifies that the label of the given element, raised to the given exponent, parses back
+     * to an equivalent unit: the whole label must be a known symbol, possibly prefixed where
+     * the trie accepts that prefix, designating the element itself or a unit converting to
+     * it by identity.
+     */
+    private void checkParseable(Unit<?> element, int exponent) {
+        final String text = label(element);
+        boolean parseable = false;
+        if (exponent >= MIN_EXPONENT && exponent <= MAX_EXPONENT) {
+            final long match = match(text, 0, text.length());
+            if (match >= 0 && (int) match == text.length()) {
+                final Unit<?> parsed = unitAt(text, 0, (int) (match >>> 32), text.length());
+                parseable = parsed.equals(element) || isEquivalent(parsed, element);
+            }
+        }
+        if (!parseable) {
+            throw new IllegalArgumentException("Unit \"" + text + "\" can not be parsed back by this format"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    /**
+     * Returns whether the given units convert to each other by identity.
+     */
+    private static boolean isEquivalent(Unit<?> parsed, Unit<?> element) {
+        try {
+            return parsed.getConverterToAny(element).isIdentity();
+        } catch (IncommensurableException e) {
+            return false;
+        } catch (UnconvertibleException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses a unit expression starting at the cursor index. On return, the cursor index is
+     * just after the last complete term; a trailing operator which is not followed by a
+     * term is left unparsed. If the cursor is {@code null}, the whole sequence must be a
+     * unit expression.
+     */
+    public Unit<?> parse(CharSequence csq, ParsePosition cursor) throws ParseException {
+        final int start = (cursor != null) ? cursor.getIndex() : 0;
+        final int end = csq.length();
+        if (start >= end) {
+            return TestUnit.ONE;
+        }
+        Unit<?> result = null;
+        boolean divide = false;
+        int pos = start;        // End of the last complete term.
+        int i = start;          // Start of the next term.
+        while (true) {
+            final long match = match(csq, i, end);
+            if (match < 0) {
+                if (result == null) {
+                    if (cursor != null) {
+                        cursor.setErrorIndex(i);
+                    }
+                    throw new ParseException("Unrecognized unit symbol at index " + i + " in \"" + csq + '"', i); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                break;
+            }
+            final int symbolEnd = (int) match;
+            Unit<?> term = unitAt(csq, i, (int) (match >>> 32), symbolEnd);
+            final long exponent = exponent(csq, symbolEnd, end);
+            final int n = (int) (exponent >> 32);
+            if (n != 1) {
+                term = term.pow(n);
+            }
+            if (result == null) {
+                result = term;
+            } else {
+                result = divide ? result.divide(term) : result.multiply(term);
+            }
+            pos = (int) exponent;
+            if (pos >= end) {
+                break;
+            }
+            final char c = csq.charAt(pos);
+            if (c == '/') {
+                divide = true;
+            } else if (c == '\u00B7' || c == '.' || c == '*' || c == '\u22C5') {
+                divide = false;
+            } else {
+                break;
+            }
+            i = pos + 1;
+            if (i >= end) {
+                break;
+            }
+        }
+        if (cursor != null) {
+            cursor.setIndex(pos);
+        } else if (pos != end) {
+            throw new ParseException("Unexpected character at index " + pos + " in \"" + csq + '"', pos); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return result;
+    }
+
+    /**
+     * Finds the longest unit symbol, possibly prefixed, starting at the given index.
+     * Returns the end of the prefix (equal to {@code start} if none) in the high 32 bits
+     * and the end of the symbol in the low 32 bits, or -1 if no symbol matches.
+     */
+    private long match(CharSequence csq, int start, int end) {
+        int best = longest(units, -1, csq, start, end);
+        int prefixEnd = start;
+        Node node = prefixes;
+        for (int i = start; i < end;) {
+            node = node.child(csq.charAt(i++));
+            if (node == null) {
+                break;
+            }
+            if (node.prefix >= 0) {
+                final int stop = longest(units, node.prefix, csq, i, end);
+                if (stop > best) {
+                    best = stop;
+                    prefixEnd = i;
+                }
+            }
+        }
+        if (best < 0) {
+            final int next = start + 1;
+            if (csq.charAt(start) == '1' && (next == end || csq.charAt(next) < '0' || csq.charAt(next) > '9')) {
+                return ((long) start << 32) | next;
+            }
+            return -1;
+        }
+        return ((long) prefixEnd << 32) | best;
+    }
+
+    /**
+     * Returns the end of the longest unit symbol starting at the given index and accepting
+     * the given prefix (-1 for none), or -1 if none.
+     */
+    private static int longest(Node root, int prefix, CharSequence csq, int start, int end) {
+        int best = -1;
+        Node node = root;
+        for (int i = start; i < end;) {
+            node = node.child(csq.charAt(i++));
+            if (node == null) {
+                break;
+            }
+            if (node.unit != null && (prefix < 0 || node.accepts(prefix))) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the node at the end of the given key, or {@code null} if none.
+     */
+    private static Node find(Node root, CharSequence csq, int start, int end) {
+        Node node = root;
+        for (int i = start; i < end && node != null; i++) {
+            node = node.child(csq.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Returns the unit matched by {@link #match}, which is {@link TestUnit#ONE} for {@code "1"}.
+     */
+    private Unit<?> unitAt(CharSequence csq, int start, int prefixEnd, int symbolEnd) {
+        final Node node = find(units, csq, prefixEnd, symbolEnd);
+        if (prefixEnd == start) {
+            return (node != null && node.unit != null) ? node.unit : TestUnit.ONE;
+        }
+        final int prefix = find(prefixes, csq, start, prefixEnd).prefix;
+        Unit<?> unit = node.prefixed.get(prefix);
+        if (unit == null) {
+            unit = prefix(PREFIXES[prefix], node.unit);
+            if (!node.prefixed.compareAndSet(prefix, null, unit)) {
+                unit = node.prefixed.get(prefix);
+            }
+        }
+        return unit;
+    }
+
+    /**
+     * Applies the given metric or binary prefix.
+     */
+    private static <Q extends Quantity<Q>> Unit<Q> prefix(Enum<?> prefix, Unit<Q> unit) {
+        return (prefix instanceof MetricPrefix) ? ((MetricPrefix) prefix).prefix(unit) : ((BinaryPrefix) prefix).prefix(unit);
+    }
+
+    /**
+     * Parses the optional exponent at the given index. Returns the exponent (1 if none)
+     * in the high 32 bits and the index after it in the low 32 bits.
+     */
+    private static long exponent(CharSequence csq, int start, int end) throws ParseException {
+        int i = start;
+        boolean negative = false;
+        boolean superscript = false;
+        if (i < end && csq.charAt(i) == '^') {
+            i++;
+        }
+        if (i < end) {
+            final char c = csq.charAt(i);
+            if (c == '-' || c == '+') {
+                negative = (c == '-');
+                i++;
+            } else if (c == '\u207B' || c == '\u207A') {
+                negative = (c == '\u207B');
+                superscript = true;
+                i++;
+            } else if (i == start && SUPERSCRIPTS.indexOf(c) >= 0) {
+                superscript = true;
+            }
+        }
+        final int digits = i;
+        int n = 0;
+        for (; i < end; i++) {
+            final char c = csq.charAt(i);
+            final int d = superscript ? SUPERSCRIPTS.indexOf(c) : (c >= '0' && c <= '9') ? c - '0' : -1;
+            if (d < 0) {
+                break;
+            }
+            n = n * 10 + d;
+            if (n > -MIN_EXPONENT) {
+                break;
+            }
+        }
+        if (i == digits) {
+            return ((long) 1 << 32) | start;
+        }
+        if (negative) {
+            n = -n;
+        }
+        if (n < MIN_EXPONENT || n > MAX_EXPONENT) {
+            throw new ParseException("Exponent out of range at index " + start, start); //$NON-NLS-1$
+        }
+        return ((long) n << 32) | i;
+    }
+}
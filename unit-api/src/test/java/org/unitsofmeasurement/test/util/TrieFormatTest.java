@@ -0,0 +1,159 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.ParsePosition;
+
+import org.junit.Test;
+import org.unitsofmeasurement.test.unit.BitUnit;
+import org.unitsofmeasurement.test.unit.DistanceUnit;
+import org.unitsofmeasurement.test.unit.TestSystemOfUnits;
+import org.unitsofmeasurement.test.unit.TestUnit;
+import org.unitsofmeasurement.test.unit.TimeUnit;
+import org.unitsofmeasurement.unit.IncommensurableException;
+import org.unitsofmeasurement.unit.Unit;
+
+
+public class TrieFormatTest {
+    private final TrieFormat format = new TrieFormat(TestSystemOfUnits.getInstance());
+
+    @Test
+    public void testSymbols() throws ParseException {
+        assertSame(DistanceUnit.km, format.parse("km"));
+        assertSame(DistanceUnit.mile, format.parse("mile"));
+        assertSame(BitUnit.kb, format.parse("kb"));
+        assertSame(TestUnit.ONE, format.parse(""));
+    }
+
+    @Test
+    public void testPrefixes() throws ParseException, IncommensurableException {
+        final Unit<?> mm = format.parse("mm");
+        assertEquals(1e-3, mm.getConverterToAny(DistanceUnit.m).convert(1), 0);
+        assertSame(mm, format.parse("mm"));
+        final Unit<?> kibit = format.parse("Kibit");
+        assertEquals(1024, kibit.getConverterToAny(BitUnit.bit).convert(1), 0);
+    }
+
+    @Test
+    public void testExpressions() throws ParseException {
+        final Unit<?> acceleration = DistanceUnit.m.divide(TimeUnit.s.pow(2));
+        assertEquals(acceleration, format.parse("m/s\u00B2"));
+        assertEquals(acceleration, format.parse("m.s-2"));
+        assertEquals(acceleration, format.parse("m\u00B7s^-2"));
+        assertEquals(acceleration, format.parse("m*s\u207B\u00B2"));
+        assertEquals(DistanceUnit.m.pow(3), format.parse("m3"));
+        assertEquals(TimeUnit.s.inverse(), format.parse("1/s"));
+        assertEquals(BitUnit.bit.divide(TimeUnit.s), format.parse("bit/s"));
+    }
+
+    @Test
+    public void testExponentRange() throws ParseException {
+        assertEquals(DistanceUnit.m.pow(-32), format.parse("m^-32"));
+        try {
+            format.parse("m^32");
+            fail("Exponent out of PackedDimension range"); //$NON-NLS-1$
+        } catch (ParseException e) {
+            assertEquals(1, e.getErrorOffset());
+        }
+    }
+
+    @Test
+    public void testFormatTransformed() throws IOException, ParseException, IncommensurableException {
+        final Unit<?> scaled = DistanceUnit.m.multiply(1000);
+        final String text = format.format(scaled, new StringBuilder()).toString();
+        assertEquals("km", text);
+        assertEquals(1000, format.parse(text).getConverterToAny(DistanceUnit.m).convert(1), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFormatUnparseable() throws IOException {
+        format.format(DistanceUnit.m.multiply(3), new StringBuilder());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFormatPrefixedArea() throws IOException {
+        format.format(DistanceUnit.m.pow(2).multiply(1000), new StringBuilder());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFormatPrefixedFrequency() throws IOException {
+        format.format(TimeUnit.s.inverse().multiply(1000), new StringBuilder());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFormatUnknownUnit() throws IOException {
+        format.format(new DistanceUnit("furlong", 201.168), new StringBuilder());
+    }
+
+    @Test
+    public void testParsePosition() throws ParseException {
+        final ParsePosition position = new ParsePosition(2);
+        assertEquals(DistanceUnit.km.divide(TimeUnit.h), format.parse("= km/h, next", position));
+        assertEquals(6, position.getIndex());
+        position.setIndex(0);
+        assertSame(DistanceUnit.m, format.parse("m/", position));
+        assertEquals(1, position.getIndex());
+        position.setIndex(0);
+        assertSame(DistanceUnit.m, format.parse("m/xyz", position));
+        assertEquals(1, position.getIndex());
+    }
+
+    @Test
+    public void testErrors() {
+        try {
+            format.parse("xyz");
+            throw new AssertionError("Expected ParseException");
+        } catch (ParseException e) {
+            assertEquals(0, e.getErrorOffset());
+        }
+        try {
+            format.parse("m/s?");
+            throw new AssertionError("Expected ParseException");
+        } catch (ParseException e) {
+            assertEquals(3, e.getErrorOffset());
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException, ParseException {
+        final Unit<?> unit = DistanceUnit.km.multiply(BitUnit.bit).divide(TimeUnit.s.pow(2));
+        final String text = format.format(unit, new StringBuilder()).toString();
+        assertEquals(unit, format.parse(text));
+        assertEquals("mile", format.format(DistanceUnit.mile, new StringBuilder()).toString());
+    }
+
+    @Test
+    public void testSingleAppend() throws IOException {
+        final Unit<?> unit = DistanceUnit.m.multiply(DistanceUnit.m).divide(TimeUnit.s.pow(3));
+        final int[] calls = new int[1];
+        final StringBuilder buffer = new StringBuilder();
+        final Appendable counter = new Appendable() {
+            public Appendable append(CharSequence csq) {
+                calls[0]++;
+                buffer.append(csq);
+                return this;
+            }
+            public Appendable append(CharSequence csq, int start, int end) {
+                return append(csq.subSequence(start, end));
+            }
+            public Appendable append(char c) {
+                return append(String.valueOf(c));
+            }
+        };
+        format.format(unit, counter);
+        assertEquals(1, calls[0]);
+        assertEquals(unit.toString(), buffer.toString());
+        assertSame(unit.toString(), unit.toString());
+    }
+}
@@ -0,0 +1,373 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.text.ParseException;
+import java.text.ParsePosition;
+
+import org.unitsofmeasurement.unit.IncommensurableException;
+import org.unitsofmeasurement.unit.Unit;
+import org.unitsofmeasurement.unit.UnitConverter;
+import org.unitsofmeasurement.unit.UnitFormat;
+
+
+/**
+ * Reads numeric CSV columns whose header cells declare the unit of each column, as in
+ * {@code speed[km/h],distance[mile]}. A header cell without brackets declares a
+ * dimensionless column. Each column can be given a {@linkplain #setTargetUnit target unit},
+ * in which case its values are converted while reading, using the converter resolved once
+ * when the target is set.
+ *
+ * <p>Rows are read in chunks into caller-provided column arrays:</p>
+ *
+ * [code]
+ *     UnitCsvReader reader = new UnitCsvReader(new FileReader(file), format);
+ *     reader.setTargetUnit(0, METRE_PER_SECOND);
+ *     double[][] columns = new double[reader.getColumnCount()][4096];
+ *     int n;
+ *     while ((n = reader.read(columns, 0, 4096)) > 0) {
+ *         ...
+ *     }
+ * [/code]
+ *
+ * <p>The input is scanned in place in a character buffer which grows only to hold the
+ * longest line, so the memory used does not depend on the size of the input. Cells are
+ * separated by {@code ','} and are not quoted; an empty cell is read as {@code NaN}, and
+ * {@code Infinity} or {@code -Infinity} as an infinite value.</p>
+ *
+ * @version 1.0
+ */
+public class UnitCsvReader implements Closeable {
+    /**
+     * The separator between cells.
+     */
+    static final char SEPARATOR = ',';
+
+    /**
+     * Default size of the character buffer.
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final Reader in;
+
+    /**
+     * The characters read and not yet consumed are from {@link #pos} to {@link #limit}.
+     */
+    private char[] buffer;
+    private CharBuffer view;
+    private int pos, limit;
+    private boolean eof;
+
+    /**
+     * Number of lines consumed, including the header, for error messages.
+     */
+    private long lineNumber;
+
+    private final String[] names;
+    private final Unit<?>[] units;
+    private final Unit<?>[] targets;
+    private final UnitConverter[] converters;
+    private final DecimalScanner numbers = new DecimalScanner();
+
+    /**
+     * Creates a reader and reads the header line.
+     *
+     * @param in the characters to read.
+     * @param format the format for parsing the units of the header.
+     * @throws IOException if an error occurred while reading.
+     * @throws ParseException if the header is missing or declares an unknown unit.
+     */
+    public UnitCsvReader(Reader in, UnitFormat format) throws IOException, ParseException {
+        this(in, format, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a reader with the given initial buffer size, and reads the header line.
+     *
+     * @param in the characters to read.
+     * @param format the format for parsing the units of the header.
+     * @param bufferSize the initial number of characters buffered.
+     * @throws IOException if an error occurred while reading.
+     * @throws ParseException if the header is missing or declares an unknown unit.
+     */
+    public UnitCsvReader(Reader in, UnitFormat format, int bufferSize) throws IOException, ParseException {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize: " + bufferSize); //$NON-NLS-1$
+        }
+        this.in = in;
+        buffer = new char[bufferSize];
+        view = CharBuffer.wrap(buffer);
+        final int end = lineEnd();
+        if (end < 0) {
+            throw new ParseException("Missing header", 0); //$NON-NLS-1$
+        }
+        final String header = new String(buffer, pos, contentEnd(end) - pos);
+        consume(end);
+        final String[] cells = header.split(String.valueOf(SEPARATOR), -1);
+        final int n = cells.length;
+        names = new String[n];
+        units = new Unit<?>[n];
+        targets = new Unit<?>[n];
+        converters = new UnitConverter[n];
+        int offset = 0;
+        for (int c = 0; c < n; c++) {
+            final String cell = cells[c];
+            final int open = cell.indexOf('[');
+            final int close = cell.lastIndexOf(']');
+            if (open >= 0 && close > open) {
+                names[c] = cell.substring(0, open).trim();
+                final ParsePosition position = new ParsePosition(open + 1);
+                try {
+                    units[c] = format.parse(cell.substring(0, close), position);
+                } catch (ParseException e) {
+                    throw new ParseException("Unknown unit in header cell \"" + cell + '"', offset + e.getErrorOffset()); //$NON-NLS-1$
+                }
+                if (position.getIndex() != close) {
+                    throw new ParseException("Unknown unit in header cell \"" + cell + '"', offset + position.getIndex()); //$NON-NLS-1$
+                }
+            } else {
+                names[c] = cell.trim();
+                units[c] = format.parse("", null); //$NON-NLS-1$
+            }
+            targets[c] = units[c];
+            offset += cell.length() + 1;
+        }
+    }
+
+    /**
+     * Returns the number of columns declared by the header.
+     *
+     * @return the number of columns.
+     */
+    public int getColumnCount() {
+        return names.length;
+    }
+
+    /**
+     * Returns the name of the given column, without its unit.
+     *
+     * @param column the column index.
+     * @return the column name.
+     */
+    public String getName(int column) {
+        return names[column];
+    }
+
+    /**
+     * Returns the unit declared by the header for the given column.
+     *
+     * @param column the column index.
+     * @return the unit of the values in the input.
+     */
+    public Unit<?> getUnit(int column) {
+        return units[column];
+    }
+
+    /**
+     * Returns the unit of the values returned for the given column.
+     *
+     * @param column the column index.
+     * @return the unit of the values read.
+     */
+    public Unit<?> getTargetUnit(int column) {
+        return targets[column];
+    }
+
+    /**
+     * Sets the unit to which the values of the given column are converted while reading.
+     *
+     * @param column the column index.
+     * @param target the unit of the values to return.
+     * @throws IncommensurableException if the declared unit can not be converted to the target.
+     */
+    public void setTargetUnit(int column, Unit<?> target) throws IncommensurableException {
+        final UnitConverter converter = units[column].getConverterToAny(target);
+        targets[column] = target;
+        converters[column] = converter.isIdentity() ? null : converter;
+    }
+
+    /**
+     * Reads up to {@code length} rows. The value of column {@code c} in the i-th row read is
+     * stored in {@code columns[c][offset + i]}, converted to the column's target unit.
+     * Blank lines are skipped.
+     *
+     * <p>If a malformed row is found after some rows have been read, reading stops before it
+     * and the rows read so far are converted and counted; the next invocation then throws
+     * the exception. The malformed row stays in place until {@link #skipLine()} is invoked,
+     * so callers wishing to continue past it must skip it.</p>
+     *
+     * @param columns one array per column, in header order.
+     * @param offset index where to store the values of the first row.
+     * @param length maximal number of rows to read.
+     * @return the number of rows read, or -1 at the end of the input.
+     * @throws IOException if an error occurred while reading.
+     * @throws ParseException if the first row is malformed. The malformed row is not consumed.
+     * @see #skipLine()
+     */
+    public int read(double[][] columns, int offset, int length) throws IOException, ParseException {
+        if (columns.length < names.length) {
+            throw new IllegalArgumentException("Expected " + names.length + " columns"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        int rows = 0;
+        while (rows < length) {
+            final int end = lineEnd();
+            if (end < 0) {
+                break;
+            }
+            final int stop = contentEnd(end);
+            if (stop > pos) {
+                try {
+                    row(stop, columns, offset + rows);
+                } catch (ParseException e) {
+                    if (rows == 0) {
+                        throw e;
+                    }
+                    break;
+                }
+                rows++;
+            }
+            consume(end);
+        }
+        for (int c = 0; c < names.length; c++) {
+            if (converters[c] != null && rows != 0) {
+                converters[c].convert(columns[c], offset, columns[c], offset, rows);
+            }
+        }
+        return (rows == 0 && length > 0) ? -1 : rows;
+    }
+
+    /**
+     * Skips the next line without parsing it, typically a malformed row reported by
+     * {@link #read read}. Blank lines are skipped too, like {@code read} does.
+     *
+     * @return {@code false} if there was no more row to skip.
+     * @throws IOException if an error occurred while reading.
+     */
+    public boolean skipLine() throws IOException {
+        while (true) {
+            final int end = lineEnd();
+            if (end < 0) {
+                return false;
+            }
+            final boolean blank = contentEnd(end) == pos;
+            consume(end);
+            if (!blank) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Parses the cells of the line from {@link #pos} to {@code stop} into the given row.
+     */
+    private void row(int stop, double[][] columns, int row) throws ParseException {
+        int i = pos;
+        for (int c = 0; c < names.length; c++) {
+            if (c != 0) {
+                if (i >= stop || buffer[i] != SEPARATOR) {
+                    throw error("Expected " + names.length + " cells", i); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                i++;
+            }
+            int cellEnd = i;
+            while (cellEnd < stop && buffer[cellEnd] != SEPARATOR) {
+                cellEnd++;
+            }
+            while (i < cellEnd && buffer[i] == ' ') {
+                i++;
+            }
+            int last = cellEnd;
+            while (last > i && buffer[last - 1] == ' ') {
+                last--;
+            }
+            if (i == last) {
+                columns[c][row] = Double.NaN;
+            } else if (numbers.scan(view, i, last) == last) {
+                columns[c][row] = numbers.value;
+            } else {
+                throw error("Invalid number in column \"" + names[c] + '"', i); //$NON-NLS-1$
+            }
+            i = cellEnd;
+        }
+        if (i != stop) {
+            throw error("Expected " + names.length + " cells", i); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    /**
+     * Returns an exception for the current line, with the column in the line as error offset.
+     */
+    private ParseException error(String message, int index) {
+        return new ParseException(message + " at line " + (lineNumber + 1), index - pos); //$NON-NLS-1$
+    }
+
+    /**
+     * Makes sure that a whole line starts at {@link #pos}, reading more characters as needed,
+     * and returns the index of its {@code '\n'} terminator, or {@link #limit} if the last line
+     * has none. Returns -1 at the end of the input.
+     */
+    private int lineEnd() throws IOException {
+        int i = pos;
+        while (true) {
+            for (; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    return i;
+                }
+            }
+            if (eof) {
+                return (pos < limit) ? limit : -1;
+            }
+            if (pos != 0) {
+                System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+                i -= pos;
+                limit -= pos;
+                pos = 0;
+            }
+            if (limit == buffer.length) {
+                final char[] grown = new char[buffer.length * 2];
+                System.arraycopy(buffer, 0, grown, 0, limit);
+                buffer = grown;
+                view = CharBuffer.wrap(buffer);
+            }
+            final int n = in.read(buffer, limit, buffer.length - limit);
+            if (n < 0) {
+                eof = true;
+            } else {
+                limit += n;
+            }
+        }
+    }
+
+    /**
+     * Returns the end of the content of the line ending at the given index, before any {@code '\r'}.
+     */
+    private int contentEnd(int end) {
+        return (end > pos && buffer[end - 1] == '\r') ? end - 1 : end;
+    }
+
+    /**
+     * Moves past the line ending at the given index.
+     */
+    private void consume(int end) {
+        pos = (end < limit) ? end + 1 : end;
+        lineNumber++;
+    }
+
+    /**
+     * Closes the underlying reader.
+     *
+     * @throws IOException if an error occurred while closing.
+     */
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.text.ParseException;
+
+import org.junit.Test;
+import org.unitsofmeasurement.test.unit.DistanceUnit;
+import org.unitsofmeasurement.test.unit.TestSystemOfUnits;
+import org.unitsofmeasurement.test.unit.TestUnit;
+import org.unitsofmeasurement.test.unit.TimeUnit;
+import org.unitsofmeasurement.unit.IncommensurableException;
+import org.unitsofmeasurement.unit.Unit;
+
+
+public class UnitCsvTest {
+    private final TrieFormat format = new TrieFormat(TestSystemOfUnits.getInstance());
+
+    @Test
+    public void testRead() throws IOException, ParseException, IncommensurableException {
+        final String csv = "speed[km/s], distance [mile],count\r\n36,1,7\n\n72, ,8\n18,2,9";
+        // A small buffer forces lines to be split across refills.
+        final UnitCsvReader reader = new UnitCsvReader(new StringReader(csv), format, 4);
+        assertEquals(3, reader.getColumnCount());
+        assertEquals("distance", reader.getName(1));
+        assertEquals(DistanceUnit.km.divide(TimeUnit.s), reader.getUnit(0));
+        assertSame(DistanceUnit.mile, reader.getUnit(1));
+        assertSame(TestUnit.ONE, reader.getUnit(2));
+        reader.setTargetUnit(0, DistanceUnit.m.divide(TimeUnit.s));
+        reader.setTargetUnit(1, DistanceUnit.km);
+        final double[][] columns = new double[3][2];
+        assertEquals(2, reader.read(columns, 0, 2));
+        assertArrayEquals(new double[] {36000, 72000}, columns[0], 1e-9);
+        assertEquals(1.609, columns[1][0], 1e-12);
+        assertTrue(Double.isNaN(columns[1][1]));
+        assertArrayEquals(new double[] {7, 8}, columns[2], 0);
+        assertEquals(1, reader.read(columns, 1, 2));
+        assertEquals(18000, columns[0][1], 1e-9);
+        assertEquals(-1, reader.read(columns, 0, 2));
+        reader.close();
+    }
+
+    @Test
+    public void testErrors() throws IOException, ParseException, IncommensurableException {
+        final UnitCsvReader reader = new UnitCsvReader(new StringReader("a[m],b[s]\n1,2\n3,x\n\n5,6\n"), format);
+        reader.setTargetUnit(0, DistanceUnit.km);
+        final double[][] columns = new double[2][4];
+        assertEquals(1, reader.read(columns, 0, 4));
+        assertEquals(0.001, columns[0][0], 1e-15);
+        assertEquals(2, columns[1][0], 0);
+        try {
+            reader.read(columns, 0, 4);
+            throw new AssertionError("Expected ParseException");
+        } catch (ParseException e) {
+            assertEquals(2, e.getErrorOffset());
+            assertTrue(e.getMessage().contains("line 3"));
+        }
+        assertTrue(reader.skipLine());
+        assertEquals(1, reader.read(columns, 0, 4));
+        assertEquals(0.005, columns[0][0], 1e-15);
+        assertEquals(6, columns[1][0], 0);
+        assertFalse(reader.skipLine());
+        try {
+            new UnitCsvReader(new StringReader("a[furlong]\n"), format);
+            throw new AssertionError("Expected ParseException");
+        } catch (ParseException e) {
+            assertEquals(2, e.getErrorOffset());
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException, ParseException, IncommensurableException {
+        final StringWriter out = new StringWriter();
+        final UnitCsvWriter writer = new UnitCsvWriter(out, format, new String[] {"distance", "count"},
+                new Unit<?>[] {DistanceUnit.m, TestUnit.ONE});
+        writer.setTargetUnit(0, DistanceUnit.km);
+        writer.write(new double[][] {{1500, 250, Double.NaN}, {1, 2, 3}}, 0, 3);
+        writer.close();
+        assertEquals("distance[km],count\n1.5,1.0\n0.25,2.0\n,3.0\n", out.toString());
+
+        final UnitCsvReader reader = new UnitCsvReader(new StringReader(out.toString()), format);
+        reader.setTargetUnit(0, DistanceUnit.m);
+        final double[][] columns = new double[2][3];
+        assertEquals(3, reader.read(columns, 0, 3));
+        assertArrayEquals(new double[] {1500, 250, Double.NaN}, columns[0], 1e-9);
+        assertArrayEquals(new double[] {1, 2, 3}, columns[1], 0);
+    }
+
+    @Test
+    public void testInfinities() throws IOException, ParseException {
+        final StringWriter out = new StringWriter();
+        final UnitCsvWriter writer = new UnitCsvWriter(out, format, new String[] {"distance"},
+                new Unit<?>[] {DistanceUnit.m});
+        writer.write(new double[][] {{Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}}, 0, 2);
+        writer.close();
+        assertEquals("distance[m]\nInfinity\n-Infinity\n", out.toString());
+
+        final UnitCsvReader reader = new UnitCsvReader(new StringReader(out.toString()), format);
+        final double[][] columns = new double[1][2];
+        assertEquals(2, reader.read(columns, 0, 2));
+        assertArrayEquals(new double[] {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}, columns[0], 0);
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Unit-API - Units of Measurement API for Java (http://unitsofmeasurement.org)
+ * Copyright (c) 2005-2013, Unit-API contributors, JScience and others
+ * All rights reserved.
+ *
+ * See LICENSE.txt for details.
+ */
+package org.unitsofmeasurement.test.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.unitsofmeasurement.test.unit.TestUnit;
+import org.unitsofmeasurement.unit.IncommensurableException;
+import org.unitsofmeasurement.unit.Unit;
+import org.unitsofmeasurement.unit.UnitConverter;
+import org.unitsofmeasurement.unit.UnitFormat;
+
+
+/**
+ * Writes numeric CSV columns with a header declaring the unit of each column, in the form
+ * read by {@link UnitCsvReader}. The values are given in the units of the columns, and can
+ * be converted on output to a {@linkplain #setTargetUnit target unit} per column, using the
+ * converter resolved once when the target is set. The header is written with the first rows.
+ *
+ * <p>Rows are formatted in a reused buffer which is written to the underlying writer every
+ * few thousand characters, so the memory used does not depend on the size of the output.
+ * {@code NaN} values are written as empty cells, and infinities as {@code Infinity} and
+ * {@code -Infinity}, which the reader accepts.</p>
+ *
+ * @version 1.0
+ */
+public class UnitCsvWriter implements Closeable, Flushable {
+    /**
+     * Number of buffered characters above which the buffer is written out.
+     */
+    private static final int FLUSH_THRESHOLD = 1 << 13;
+
+    private final Writer out;
+    private final UnitFormat format;
+    private final String[] names;
+    private final Unit<?>[] units;
+    private final Unit<?>[] targets;
+    private final UnitConverter[] converters;
+    private boolean headerWritten;
+
+    /**
+     * The text not yet written, and a reusable array for writing it.
+     */
+    private final StringBuilder text = new StringBuilder();
+    private char[] chars = new char[FLUSH_THRESHOLD * 2];
+
+    /**
+     * Converted values of the current chunk, for columns having a converter.
+     */
+    private double[] converted = new double[0];
+
+    /**
+     * For each column, the array and index of the current chunk's values.
+     */
+    private final double[][] values;
+    private final int[] offsets;
+
+    /**
+     * Creates a writer for columns of the given names and units.
+     *
+     * @param out where to write.
+     * @param format the format for writing the units of the header.
+     * @param names the column names.
+     * @param units the unit of the values given for each column.
+     */
+    public UnitCsvWriter(Writer out, UnitFormat format, String[] names, Unit<?>[] units) {
+        if (names.length != units.length) {
+            throw new IllegalArgumentException("Expected " + names.length + " units"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        this.out = out;
+        this.format = format;
+        this.names = names.clone();
+        this.units = units.clone();
+        this.targets = units.clone();
+        this.converters = new UnitConverter[units.length];
+        this.values = new double[units.length][];
+        this.offsets = new int[units.length];
+    }
+
+    /**
+     * Sets the unit in which the values of the given column are written.
+     *
+     * @param column the column index.
+     * @param target the unit to write the values in.
+     * @throws IncommensurableException if the column unit can not be converted to the target.
+     * @throws IllegalStateException if the header has already been written.
+     */
+    public void setTargetUnit(int column, Unit<?> target) throws IncommensurableException {
+        if (headerWritten) {
+            throw new IllegalStateException("Header already written"); //$NON-NLS-1$
+        }
+        final UnitConverter converter = units[column].getConverterToAny(target);
+        targets[column] = target;
+        converters[column] = converter.isIdentity() ? null : converter;
+    }
+
+    /**
+     * Writes the header if not already done.
+     */
+    private void header() throws IOException {
+        if (headerWritten) {
+            return;
+        }
+        for (int c = 0; c < names.length; c++) {
+            if (c != 0) {
+                text.append(UnitCsvReader.SEPARATOR);
+            }
+            text.append(names[c]);
+            final Unit<?> unit = targets[c];
+            if (!TestUnit.ONE.equals(unit)) {
+                text.append('[');
+                format.format(unit, text);
+                text.append(']');
+            }
+        }
+        text.append('\n');
+        headerWritten = true;
+    }
+
+    /**
+     * Writes {@code length} rows. The value of column {@code c} in the i-th row written is
+     * {@code columns[c][offset + i]}, in the unit of the column; the arrays are not modified.
+     *
+     * @param columns one array per column.
+     * @param offset index of the values of the first row.
+     * @param length number of rows to write.
+     * @throws IOException if an error occurred while writing.
+     */
+    public void write(double[][] columns, int offset, int length) throws IOException {
+        if (columns.length < names.length) {
+            throw new IllegalArgumentException("Expected " + names.length + " columns"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        header();
+        int needed = 0;
+        for (int c = 0; c < names.length; c++) {
+            if (converters[c] != null) {
+                needed += length;
+            }
+        }
+        if (converted.length < needed) {
+            converted = new double[needed];
+        }
+        int next = 0;
+        for (int c = 0; c < names.length; c++) {
+            if (converters[c] != null) {
+                converters[c].convert(columns[c], offset, converted, next, length);
+                values[c] = converted;
+                offsets[c] = next;
+                next += length;
+            } else {
+                values[c] = columns[c];
+                offsets[c] = offset;
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            for (int c = 0; c < names.length; c++) {
+                if (c != 0) {
+                    text.append(UnitCsvReader.SEPARATOR);
+                }
+                final double value = values[c][offsets[c] + i];
+                if (!Double.isNaN(value)) {
+                    text.append(value);
+                }
+            }
+            text.append('\n');
+            if (text.length() >= FLUSH_THRESHOLD) {
+                drain();
+            }
+        }
+    }
+
+    /**
+     * Writes the buffered text to the underlying writer.
+     */
+    private void drain() throws IOException {
+        final int n = text.length();
+        if (chars.length < n) {
+            chars = new char[n];
+        }
+        text.getChars(0, n, chars, 0);
+        out.write(chars, 0, n);
+        text.setLength(0);
+    }
+
+    /**
+     * Writes the header if no row has been written, then the buffered text, and flushes
+     * the underlying writer.
+     *
+     * @throws IOException if an error occurred while writing.
+     */
+    public void flush() throws IOException {
+        header();
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Flushes, then closes the underlying writer.
+     *
+     * @throws IOException if an error occurred while writing or closing.
+     */
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+}